@@ -8,11 +8,20 @@ import net.pwing.brewmasters.listeners.GUIListener;
 import net.pwing.brewmasters.listeners.PlayerListener;
 import net.pwing.brewmasters.managers.RecipeManager;
 import net.pwing.brewmasters.managers.PlayerDataManager;
+import net.pwing.brewmasters.managers.DiscoveryGroupManager;
 import net.pwing.brewmasters.managers.DiscoveryManager;
+import net.pwing.brewmasters.managers.DrinkCooldownManager;
+import net.pwing.brewmasters.managers.HintManager;
+import net.pwing.brewmasters.managers.LeaderboardManager;
+import net.pwing.brewmasters.managers.NotificationManager;
 import net.pwing.brewmasters.managers.AchievementManager;
+import net.pwing.brewmasters.managers.AnalyticsManager;
 import net.pwing.brewmasters.managers.BrewingSpeedManager;
 import net.pwing.brewmasters.managers.BrewingChainManager;
+import net.pwing.brewmasters.managers.CommandManager;
+import net.pwing.brewmasters.managers.PeriodicEffectManager;
 import net.pwing.brewmasters.managers.PotionEffectManager;
+import net.pwing.brewmasters.managers.ServerFirstManager;
 import net.pwing.brewmasters.utils.IntegrationUtils;
 import org.bukkit.plugin.java.JavaPlugin;
 
@@ -21,6 +30,7 @@ public class BrewMasters extends JavaPlugin {
     private RecipeManager recipeManager;
     private PlayerDataManager playerDataManager;
     private DiscoveryManager discoveryManager;
+    private DiscoveryGroupManager discoveryGroupManager;
     private AchievementManager achievementManager;
     private BrewingSpeedManager brewingSpeedManager;
     private BrewingChainManager brewingChainManager;
@@ -28,6 +38,14 @@ public class BrewMasters extends JavaPlugin {
     private GUIConfigManager guiConfigManager;
     private BrewMastersExpansion placeholderExpansion;
     private PotionEffectManager potionEffectManager;
+    private PeriodicEffectManager periodicEffectManager;
+    private DrinkCooldownManager drinkCooldownManager;
+    private LeaderboardManager leaderboardManager;
+    private AnalyticsManager analyticsManager;
+    private ServerFirstManager serverFirstManager;
+    private HintManager hintManager;
+    private CommandManager commandManager;
+    private NotificationManager notificationManager;
 
     @Override
     public void onEnable() {
@@ -38,20 +56,33 @@ public class BrewMasters extends JavaPlugin {
         guiConfigManager = new GUIConfigManager(this);
 
         // Initialize managers
+        commandManager = new CommandManager(this);
+        notificationManager = new NotificationManager(this);
         playerDataManager = new PlayerDataManager(this);
         recipeManager = new RecipeManager(this);
+        discoveryGroupManager = new DiscoveryGroupManager(this);
         discoveryManager = new DiscoveryManager(this);
         achievementManager = new AchievementManager(this);
         brewingSpeedManager = new BrewingSpeedManager(this);
         brewingChainManager = new BrewingChainManager(this);
+        periodicEffectManager = new PeriodicEffectManager(this);
+        drinkCooldownManager = new DrinkCooldownManager(this);
+        leaderboardManager = new LeaderboardManager(this);
+        analyticsManager = new AnalyticsManager(this);
+        serverFirstManager = new ServerFirstManager(this);
+        hintManager = new HintManager(this);
         potionEffectManager = new PotionEffectManager(this);
 
         recipeManager.loadRecipes();
+        discoveryGroupManager.reindex();
+        serverFirstManager.registerAll();
+        hintManager.loadHints();
 
         // Register listeners
         getServer().getPluginManager().registerEvents(new BrewingListener(this), this);
         getServer().getPluginManager().registerEvents(new PlayerListener(this), this);
         getServer().getPluginManager().registerEvents(new net.pwing.brewmasters.listeners.PotionDrinkListener(this), this);
+        getServer().getPluginManager().registerEvents(new net.pwing.brewmasters.listeners.DiscoveryListener(this), this);
 
         // Initialize and register GUI listener
         guiListener = new GUIListener(this);
@@ -77,9 +108,27 @@ public class BrewMasters extends JavaPlugin {
 
     @Override
     public void onDisable() {
+        if (commandManager != null) {
+            commandManager.shutdown();
+        }
         if (playerDataManager != null) {
             playerDataManager.saveAllPlayerData();
         }
+        if (leaderboardManager != null) {
+            leaderboardManager.save();
+        }
+        if (serverFirstManager != null) {
+            serverFirstManager.save();
+        }
+        if (discoveryGroupManager != null) {
+            discoveryGroupManager.save();
+        }
+        if (analyticsManager != null) {
+            analyticsManager.shutdown();
+        }
+        if (periodicEffectManager != null) {
+            periodicEffectManager.shutdown();
+        }
         if (potionEffectManager != null) {
             potionEffectManager.shutdown();
         }
@@ -98,6 +147,10 @@ public class BrewMasters extends JavaPlugin {
         return discoveryManager;
     }
 
+    public DiscoveryGroupManager getDiscoveryGroupManager() {
+        return discoveryGroupManager;
+    }
+
     public AchievementManager getAchievementManager() {
         return achievementManager;
     }
@@ -122,13 +175,50 @@ public class BrewMasters extends JavaPlugin {
         return potionEffectManager;
     }
 
+    public PeriodicEffectManager getPeriodicEffectManager() {
+        return periodicEffectManager;
+    }
+
+    public DrinkCooldownManager getDrinkCooldownManager() {
+        return drinkCooldownManager;
+    }
+
+    public LeaderboardManager getLeaderboardManager() {
+        return leaderboardManager;
+    }
+
+    public AnalyticsManager getAnalyticsManager() {
+        return analyticsManager;
+    }
+
+    public ServerFirstManager getServerFirstManager() {
+        return serverFirstManager;
+    }
+
+    public HintManager getHintManager() {
+        return hintManager;
+    }
+
+    public CommandManager getCommandManager() {
+        return commandManager;
+    }
+
+    public NotificationManager getNotificationManager() {
+        return notificationManager;
+    }
+
     public void reload() {
         reloadConfig();
         guiConfigManager.reload();
+        commandManager.loadSettings();
         recipeManager.loadRecipes();
+        discoveryGroupManager.reindex();
         discoveryManager.loadDiscoveryMethods();
         achievementManager.loadAchievements();
         brewingSpeedManager.loadSpeedSettings();
         brewingChainManager.loadChains();
+        serverFirstManager.loadSettings();
+        serverFirstManager.registerAll();
+        hintManager.loadHints();
     }
 }
@@ -1,8 +1,13 @@
 package net.pwing.brewmasters.commands;
 
 import net.pwing.brewmasters.BrewMasters;
+import net.pwing.brewmasters.managers.AnalyticsManager;
+import net.pwing.brewmasters.managers.CommandManager;
+import net.pwing.brewmasters.managers.DiscoveryGroupManager;
 import net.pwing.brewmasters.models.BrewingRecipe;
 import net.pwing.brewmasters.models.BrewingChain;
+import net.pwing.brewmasters.models.ChainProgress;
+import net.pwing.brewmasters.models.DiscoveryGroup;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
 import org.bukkit.ChatColor;
@@ -17,6 +22,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Set;
+import java.util.UUID;
 
 /**
  * Main command handler for BrewMasters
@@ -101,6 +107,30 @@ public class BrewMastersCommand implements CommandExecutor, TabCompleter {
                 handleSpeedCommand(sender, args);
                 return true;
 
+            case "queue":
+                if (!sender.hasPermission("brewmasters.admin")) {
+                    sender.sendMessage(Component.text("You don't have permission to use this command.", NamedTextColor.RED));
+                    return true;
+                }
+                handleQueueCommand(sender, args);
+                return true;
+
+            case "stats":
+                if (!sender.hasPermission("brewmasters.admin")) {
+                    sender.sendMessage(Component.text("You don't have permission to use this command.", NamedTextColor.RED));
+                    return true;
+                }
+                handleStatsCommand(sender, args);
+                return true;
+
+            case "group":
+                if (!sender.hasPermission("brewmasters.admin")) {
+                    sender.sendMessage(Component.text("You don't have permission to use this command.", NamedTextColor.RED));
+                    return true;
+                }
+                handleGroupCommand(sender, args);
+                return true;
+
             case "chains":
                 return handleChainsCommand(sender, args);
 
@@ -130,6 +160,12 @@ public class BrewMastersCommand implements CommandExecutor, TabCompleter {
                 + " - Force discover a recipe (admin)");
         sender.sendMessage(ChatColor.YELLOW + "/brewmasters speed <set|remove|info> [multiplier]" + ChatColor.WHITE
                 + " - Manage brewing stand speeds (admin)");
+        sender.sendMessage(ChatColor.YELLOW + "/brewmasters queue [reset]" + ChatColor.WHITE
+                + " - Show command queue metrics (admin)");
+        sender.sendMessage(ChatColor.YELLOW + "/brewmasters stats [brews|failures|discoveries|drinks|export]"
+                + ChatColor.WHITE + " - Show server-wide recipe usage (admin)");
+        sender.sendMessage(ChatColor.YELLOW + "/brewmasters group <list|info|create|delete|add|remove>"
+                + ChatColor.WHITE + " - Manage shared recipe books (admin)");
         sender.sendMessage(
                 ChatColor.YELLOW + "/brewmasters chains" + ChatColor.WHITE + " - List available brewing chains");
         sender.sendMessage(ChatColor.YELLOW + "/brewmasters chain <chainId>" + ChatColor.WHITE
@@ -303,6 +339,182 @@ public class BrewMastersCommand implements CommandExecutor, TabCompleter {
         }
     }
 
+    private void handleQueueCommand(CommandSender sender, String[] args) {
+        CommandManager commandManager = plugin.getCommandManager();
+
+        if (args.length > 1 && args[1].equalsIgnoreCase("reset")) {
+            commandManager.resetMetrics();
+            sender.sendMessage(ChatColor.GREEN + "Command queue metrics reset.");
+            return;
+        }
+
+        sender.sendMessage(ChatColor.GOLD + "=== Command Queue ===");
+        sender.sendMessage(ChatColor.YELLOW + "Queued: " + ChatColor.WHITE + commandManager.getQueueDepth()
+                + ChatColor.GRAY + " (high " + commandManager.getQueueDepth(CommandManager.Priority.HIGH)
+                + ", normal " + commandManager.getQueueDepth(CommandManager.Priority.NORMAL)
+                + ", low " + commandManager.getQueueDepth(CommandManager.Priority.LOW) + ")");
+        sender.sendMessage(ChatColor.YELLOW + "Peak queued: " + ChatColor.WHITE + commandManager.getPeakQueueDepth());
+        sender.sendMessage(ChatColor.YELLOW + "Executed: " + ChatColor.WHITE + commandManager.getExecutedCount());
+        sender.sendMessage(ChatColor.YELLOW + "Latency: " + ChatColor.WHITE
+                + String.format("%.2fms avg, %.2fms max", commandManager.getAverageLatencyMillis(),
+                        commandManager.getMaxLatencyMillis()));
+        sender.sendMessage(ChatColor.YELLOW + "Backlogged ticks: " + ChatColor.WHITE
+                + commandManager.getBackloggedTicks() + ChatColor.GRAY
+                + String.format(" (budget %.1fms/tick)", commandManager.getTickBudgetMillis()));
+    }
+
+    private void handleStatsCommand(CommandSender sender, String[] args) {
+        AnalyticsManager analyticsManager = plugin.getAnalyticsManager();
+
+        if (args.length > 1 && args[1].equalsIgnoreCase("export")) {
+            sender.sendMessage(ChatColor.YELLOW + "Exporting analytics...");
+            analyticsManager.exportCsv(file -> {
+                if (file != null) {
+                    sender.sendMessage(ChatColor.GREEN + "Analytics exported to " + file.getName());
+                } else {
+                    sender.sendMessage(ChatColor.RED + "Failed to export analytics, see the console.");
+                }
+            });
+            return;
+        }
+
+        AnalyticsManager.Metric metric = args.length > 1 ? AnalyticsManager.Metric.fromKey(args[1])
+                : AnalyticsManager.Metric.BREWS;
+        if (metric == null) {
+            sender.sendMessage(ChatColor.RED + "Usage: /brewmasters stats [brews|failures|discoveries|drinks|export]");
+            return;
+        }
+
+        List<AnalyticsManager.Stat> stats = analyticsManager.getStats(metric);
+        sender.sendMessage(ChatColor.GOLD + "=== Recipe Stats: " + metric.getKey() + " ===");
+        if (stats.isEmpty()) {
+            sender.sendMessage(ChatColor.GRAY + "Nothing recorded since the server started.");
+            return;
+        }
+
+        for (int i = 0; i < stats.size() && i < 10; i++) {
+            AnalyticsManager.Stat stat = stats.get(i);
+            sender.sendMessage(ChatColor.AQUA + stat.getKey() + ChatColor.WHITE + " - " + stat.getTotal()
+                    + ChatColor.GRAY + " (this hour " + stat.getHourly()[0] + ", last 24h " + stat.getLastDay() + ")");
+        }
+        if (stats.size() > 10) {
+            sender.sendMessage(ChatColor.GRAY + "... and " + (stats.size() - 10) + " more, use /brewmasters stats export");
+        }
+    }
+
+    private void handleGroupCommand(CommandSender sender, String[] args) {
+        DiscoveryGroupManager groupManager = plugin.getDiscoveryGroupManager();
+        String action = args.length > 1 ? args[1].toLowerCase() : "list";
+
+        switch (action) {
+            case "list":
+                sender.sendMessage(ChatColor.GOLD + "=== Discovery Groups ===");
+                if (groupManager.getGroups().isEmpty()) {
+                    sender.sendMessage(ChatColor.GRAY + "No groups yet, use /brewmasters group create <group>");
+                    return;
+                }
+                for (DiscoveryGroup group : groupManager.getGroups()) {
+                    sender.sendMessage(ChatColor.AQUA + group.getId() + ChatColor.WHITE + " - "
+                            + group.getMembers().size() + " members, " + group.getRecipeCount() + " recipes");
+                }
+                return;
+
+            case "info":
+                if (args.length < 3) {
+                    sender.sendMessage(ChatColor.RED + "Usage: /brewmasters group info <group>");
+                    return;
+                }
+                DiscoveryGroup group = groupManager.getGroup(args[2]);
+                if (group == null) {
+                    sender.sendMessage(ChatColor.RED + "Group not found: " + args[2]);
+                    return;
+                }
+                sender.sendMessage(ChatColor.GOLD + "=== Group: " + group.getId() + " ===");
+                List<String> names = new ArrayList<>();
+                for (UUID memberId : group.getMembers()) {
+                    String name = plugin.getServer().getOfflinePlayer(memberId).getName();
+                    names.add(name != null ? name : memberId.toString());
+                }
+                sender.sendMessage(ChatColor.YELLOW + "Members: " + ChatColor.WHITE
+                        + (names.isEmpty() ? "none" : String.join(", ", names)));
+                sender.sendMessage(ChatColor.YELLOW + "Shared recipes: " + ChatColor.WHITE + group.getRecipeCount());
+                return;
+
+            case "create":
+                if (args.length < 3) {
+                    sender.sendMessage(ChatColor.RED + "Usage: /brewmasters group create <group>");
+                    return;
+                }
+                if (groupManager.createGroup(args[2]) == null) {
+                    sender.sendMessage(ChatColor.RED + "Group already exists: " + args[2]);
+                } else {
+                    sender.sendMessage(ChatColor.GREEN + "Created group " + args[2]);
+                }
+                return;
+
+            case "delete":
+                if (args.length < 3) {
+                    sender.sendMessage(ChatColor.RED + "Usage: /brewmasters group delete <group>");
+                    return;
+                }
+                if (groupManager.deleteGroup(args[2])) {
+                    sender.sendMessage(ChatColor.GREEN + "Deleted group " + args[2]);
+                } else {
+                    sender.sendMessage(ChatColor.RED + "Group not found: " + args[2]);
+                }
+                return;
+
+            case "add":
+                if (args.length < 4) {
+                    sender.sendMessage(ChatColor.RED + "Usage: /brewmasters group add <group> <player|uuid>");
+                    return;
+                }
+                UUID addedId = resolvePlayerId(args[3]);
+                if (addedId == null) {
+                    sender.sendMessage(ChatColor.RED + "Player not found: " + args[3]);
+                    return;
+                }
+                if (groupManager.addMember(args[2], addedId)) {
+                    sender.sendMessage(ChatColor.GREEN + "Added " + args[3] + " to group " + args[2]);
+                } else {
+                    sender.sendMessage(ChatColor.RED + "Group not found: " + args[2]);
+                }
+                return;
+
+            case "remove":
+                if (args.length < 3) {
+                    sender.sendMessage(ChatColor.RED + "Usage: /brewmasters group remove <player|uuid>");
+                    return;
+                }
+                UUID memberId = resolvePlayerId(args[2]);
+                DiscoveryGroup left = memberId != null ? groupManager.removeMember(memberId) : null;
+                if (left != null) {
+                    sender.sendMessage(ChatColor.GREEN + "Removed " + args[2] + " from group " + left.getId());
+                } else {
+                    sender.sendMessage(ChatColor.RED + args[2] + " is not in a group.");
+                }
+                return;
+
+            default:
+                sender.sendMessage(ChatColor.RED + "Usage: /brewmasters group <list|info|create|delete|add|remove>");
+        }
+    }
+
+    /**
+     * Get the UUID of an online player by name, or parse it as a UUID
+     */
+    private UUID resolvePlayerId(String nameOrId) {
+        Player player = plugin.getServer().getPlayer(nameOrId);
+        if (player != null) {
+            return player.getUniqueId();
+        }
+        try {
+            return UUID.fromString(nameOrId);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
     private void showSpeedInfo(Player player) {
         org.bukkit.block.Block targetBlock = player.getTargetBlock(null, 5);
 
@@ -379,7 +591,7 @@ public class BrewMastersCommand implements CommandExecutor, TabCompleter {
             String input = args[0].toLowerCase();
 
             for (String option : Arrays.asList("reload", "list", "recipes", "achievements", "discover", "speed",
-                    "chains", "chain", "help")) {
+                    "queue", "stats", "group", "chains", "chain", "help")) {
                 if (option.startsWith(input)) {
                     completions.add(option);
                 }
@@ -462,9 +674,9 @@ public class BrewMastersCommand implements CommandExecutor, TabCompleter {
             return true;
         }
 
-        List<String> completedRecipes = plugin.getBrewingChainManager().getCompletedChainRecipes(player, chainId);
+        ChainProgress chainProgress = plugin.getBrewingChainManager().getProgress(player, chain);
         boolean chainCompleted = plugin.getBrewingChainManager().hasCompletedChain(player, chainId);
-        double progress = plugin.getBrewingChainManager().getChainProgress(player, chainId);
+        double progress = chain.getProgress(chainProgress);
 
         sender.sendMessage(ChatColor.GOLD + "=== " + chain.getName() + " ===");
 
@@ -481,7 +693,7 @@ public class BrewMastersCommand implements CommandExecutor, TabCompleter {
         if (chainCompleted) {
             sender.sendMessage(ChatColor.GREEN + "✓ Chain Completed!");
         } else {
-            sender.sendMessage(ChatColor.YELLOW + "Completed: " + completedRecipes.size() + "/"
+            sender.sendMessage(ChatColor.YELLOW + "Completed: " + chainProgress.getCount() + "/"
                     + chain.getSteps().size() + " steps");
         }
 
@@ -491,13 +703,12 @@ public class BrewMastersCommand implements CommandExecutor, TabCompleter {
         // Show each step
         for (int i = 0; i < chain.getSteps().size(); i++) {
             BrewingChain.ChainStep step = chain.getSteps().get(i);
-            boolean stepCompleted = completedRecipes.contains(step.getRecipeId());
+            boolean stepCompleted = chainProgress.isComplete(i);
 
             String stepStatus;
             if (stepCompleted) {
                 stepStatus = ChatColor.GREEN + "✓";
-            } else if (chain.requiresOrder() && i > 0
-                    && !completedRecipes.contains(chain.getSteps().get(i - 1).getRecipeId())) {
+            } else if (!chain.isStepUnlocked(chainProgress, i)) {
                 stepStatus = ChatColor.RED + "✗ (Locked)";
             } else {
                 stepStatus = ChatColor.YELLOW + "○";
@@ -23,7 +23,7 @@ import java.util.stream.Collectors;
  * Fully configurable with MiniMessage support and visibility filtering
  */
 @SuppressWarnings("deprecation")
-public class AchievementsGUI {
+public class AchievementsGUI implements GUIHolder.ClickHandler {
 
     private final BrewMasters plugin;
     private final Player player;
@@ -114,7 +114,7 @@ public class AchievementsGUI {
         Component titleComponent = TextUtils.parseAuto(titleText);
         
         // Create inventory with configured size
-        Inventory gui = InventoryUtils.createInventory(config.getSize(), titleComponent);
+        Inventory gui = GUIHolder.createInventory(this, config.getSize(), titleComponent);
         
         // Add filler items if enabled
         if (config.isFillerEnabled()) {
@@ -460,6 +460,7 @@ public class AchievementsGUI {
     /**
      * Handle GUI click events with config-based slots and sounds
      */
+    @Override
     public boolean handleClick(int slot, ItemStack clickedItem) {
         if (clickedItem == null || clickedItem.getType() == Material.AIR) {
             return false;
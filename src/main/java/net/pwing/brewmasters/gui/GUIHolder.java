@@ -0,0 +1,53 @@
+package net.pwing.brewmasters.gui;
+
+import net.kyori.adventure.text.Component;
+import net.pwing.brewmasters.utils.InventoryUtils;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryHolder;
+import org.bukkit.inventory.ItemStack;
+
+/**
+ * Holder of every BrewMasters GUI inventory
+ *
+ * Clicks are routed by checking the holder of the clicked inventory, so GUI
+ * titles can be configured freely and other inventories are skipped with a
+ * single instanceof check.
+ */
+public class GUIHolder implements InventoryHolder {
+
+    private final ClickHandler handler;
+    private Inventory inventory;
+
+    private GUIHolder(ClickHandler handler) {
+        this.handler = handler;
+    }
+
+    /**
+     * Create a GUI inventory whose clicks go to a handler
+     */
+    public static Inventory createInventory(ClickHandler handler, int size, Component title) {
+        GUIHolder holder = new GUIHolder(handler);
+        holder.inventory = InventoryUtils.createInventory(holder, size, title);
+        return holder.inventory;
+    }
+
+    public ClickHandler getHandler() {
+        return handler;
+    }
+
+    @Override
+    public Inventory getInventory() {
+        return inventory;
+    }
+
+    /**
+     * A GUI that handles clicks in its inventory
+     */
+    public interface ClickHandler {
+        /**
+         * Handle a click in the GUI inventory
+         * @return true if the click did something
+         */
+        boolean handleClick(int slot, ItemStack clickedItem);
+    }
+}
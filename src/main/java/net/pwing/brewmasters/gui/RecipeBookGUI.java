@@ -22,7 +22,7 @@ import java.util.*;
  * Fully configurable with MiniMessage support, visibility filtering, and advanced features
  */
 @SuppressWarnings("deprecation")
-public class RecipeBookGUI {
+public class RecipeBookGUI implements GUIHolder.ClickHandler {
 
     private final BrewMasters plugin;
     private final Player player;
@@ -120,7 +120,7 @@ public class RecipeBookGUI {
         Component titleComponent = TextUtils.parseAuto(titleText);
         
         // Create inventory with configured size and modern title
-        Inventory gui = InventoryUtils.createInventory(config.getSize(), titleComponent);
+        Inventory gui = GUIHolder.createInventory(this, config.getSize(), titleComponent);
         
         // Add filler items if enabled
         if (config.isFillerEnabled()) {
@@ -177,20 +177,39 @@ public class RecipeBookGUI {
     }
 
     /**
-     * Create an item representing a recipe with proper state handling
+     * Get the item representing a recipe in its state for this player, rendered once for all players
      */
     private ItemStack createRecipeItem(BrewingRecipe recipe) {
         boolean discovered = plugin.getDiscoveryManager().canAccessRecipe(player, recipe.getId());
         boolean conditionsMet = recipe.getConditions().isEmpty() || 
                                 recipe.checkConditions(player, player.getLocation());
         
-        // Determine recipe state and create appropriate item
+        // Determine recipe state
+        RecipeItemCache.State state;
         if (discovered) {
-            return createDiscoveredRecipeItem(recipe, conditionsMet);
+            state = conditionsMet ? RecipeItemCache.State.DISCOVERED
+                    : RecipeItemCache.State.DISCOVERED_CONDITIONS_UNMET;
         } else if (!conditionsMet) {
-            return createConditionLockedItem(recipe);
+            state = RecipeItemCache.State.CONDITION_LOCKED;
         } else {
-            return createLockedRecipeItem(recipe);
+            state = RecipeItemCache.State.LOCKED;
+        }
+        return plugin.getGUIConfigManager().getRecipeItemCache().get(recipe, state, this::renderRecipeItem);
+    }
+
+    /**
+     * Render the item of a recipe in a state
+     */
+    private ItemStack renderRecipeItem(BrewingRecipe recipe, RecipeItemCache.State state) {
+        switch (state) {
+            case DISCOVERED:
+                return createDiscoveredRecipeItem(recipe, true);
+            case DISCOVERED_CONDITIONS_UNMET:
+                return createDiscoveredRecipeItem(recipe, false);
+            case CONDITION_LOCKED:
+                return createConditionLockedItem(recipe);
+            default:
+                return createLockedRecipeItem(recipe);
         }
     }
     
@@ -482,6 +501,7 @@ public class RecipeBookGUI {
     /**
      * Handle GUI click events with config-based slots and sounds
      */
+    @Override
     public boolean handleClick(int slot, ItemStack clickedItem) {
         if (clickedItem == null || clickedItem.getType() == Material.AIR) {
             return false;
@@ -3,6 +3,7 @@ package net.pwing.brewmasters.gui;
 import net.kyori.adventure.text.Component;
 import net.pwing.brewmasters.BrewMasters;
 import net.pwing.brewmasters.gui.config.RecipeDetailsGUIConfig;
+import net.pwing.brewmasters.managers.DrinkCooldownManager;
 import net.pwing.brewmasters.models.BrewingRecipe;
 import net.pwing.brewmasters.utils.InventoryUtils;
 import net.pwing.brewmasters.utils.TextUtils;
@@ -25,7 +26,7 @@ import java.util.Map;
  * Fully configurable with MiniMessage support and custom layouts
  */
 @SuppressWarnings("deprecation")
-public class RecipeDetailsGUI {
+public class RecipeDetailsGUI implements GUIHolder.ClickHandler {
 
     private final BrewMasters plugin;
     private final Player player;
@@ -46,7 +47,6 @@ public class RecipeDetailsGUI {
      */
     public void open() {
         Inventory gui = createGUI();
-        plugin.getGUIListener().openRecipeDetails(player, this);
         player.openInventory(gui);
         
         // Play open sound
@@ -66,7 +66,7 @@ public class RecipeDetailsGUI {
         Component titleComponent = TextUtils.parseAuto(titleText);
         
         // Create inventory with configured size
-        Inventory gui = InventoryUtils.createInventory(config.getSize(), titleComponent);
+        Inventory gui = GUIHolder.createInventory(this, config.getSize(), titleComponent);
         
         // Add filler items if enabled
         if (config.isFillerEnabled()) {
@@ -276,6 +276,18 @@ public class RecipeDetailsGUI {
                 lore.add(ChatColor.GRAY + "Custom Model: " + recipe.getCustomModelData());
             }
 
+            if (recipe.getDrinkCooldown() > 0) {
+                lore.add(ChatColor.GRAY + "Drink Cooldown: " + ChatColor.WHITE
+                        + formatDuration(recipe.getDrinkCooldown() / 20));
+
+                long remaining = plugin.getDrinkCooldownManager().getRemainingMillis(player.getUniqueId(), recipe);
+                if (remaining > 0) {
+                    lore.add(ChatColor.RED + "Ready in: " + DrinkCooldownManager.formatRemaining(remaining));
+                } else {
+                    lore.add(ChatColor.GREEN + "Ready to drink");
+                }
+            }
+
             typeMeta.setLore(lore);
             typeItem.setItemMeta(typeMeta);
         }
@@ -352,6 +364,7 @@ public class RecipeDetailsGUI {
     /**
      * Handle GUI click events with config slots and sounds
      */
+    @Override
     public boolean handleClick(int slot, ItemStack clickedItem) {
         if (clickedItem == null || clickedItem.getType() == Material.AIR) {
             return false;
@@ -0,0 +1,57 @@
+package net.pwing.brewmasters.gui;
+
+import net.pwing.brewmasters.models.BrewingRecipe;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.Arrays;
+import java.util.function.BiFunction;
+
+/**
+ * Rendered recipe book items, shared by every player
+ *
+ * Items are kept per recipe index and display state. A row is rendered again
+ * when its recipe was reloaded (a new recipe instance), and the whole cache is
+ * replaced when the GUI config reloads. Items are not localized, so the locale
+ * is not part of the key. Inventories copy items when they are set, so cached
+ * items are handed out as they are and must not be modified.
+ */
+public class RecipeItemCache {
+
+    private BrewingRecipe[] recipes = new BrewingRecipe[0]; // Recipe each row was rendered for
+    private ItemStack[][] items = new ItemStack[0][];
+
+    /**
+     * Get the item of a recipe in a display state, rendering it the first time
+     * @param renderer Renders the item when it is not cached
+     */
+    public ItemStack get(BrewingRecipe recipe, State state, BiFunction<BrewingRecipe, State, ItemStack> renderer) {
+        int index = recipe.getIndex();
+        if (index >= recipes.length) {
+            int size = Math.max(index + 1, recipes.length * 2);
+            recipes = Arrays.copyOf(recipes, size);
+            items = Arrays.copyOf(items, size);
+        }
+
+        if (recipes[index] != recipe) {
+            recipes[index] = recipe;
+            items[index] = new ItemStack[State.values().length];
+        }
+
+        ItemStack item = items[index][state.ordinal()];
+        if (item == null) {
+            item = renderer.apply(recipe, state);
+            items[index][state.ordinal()] = item;
+        }
+        return item;
+    }
+
+    /**
+     * How a recipe is shown to a player
+     */
+    public enum State {
+        DISCOVERED,
+        DISCOVERED_CONDITIONS_UNMET,
+        CONDITION_LOCKED,
+        LOCKED
+    }
+}
@@ -1,6 +1,7 @@
 package net.pwing.brewmasters.gui.config;
 
 import net.pwing.brewmasters.BrewMasters;
+import net.pwing.brewmasters.gui.RecipeItemCache;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
 
@@ -20,6 +21,7 @@ public class GUIConfigManager {
     private RecipeBookGUIConfig recipeBookConfig;
     private RecipeDetailsGUIConfig recipeDetailsConfig;
     private AchievementsGUIConfig achievementsConfig;
+    private RecipeItemCache recipeItemCache;
     
     public GUIConfigManager(BrewMasters plugin) {
         this.plugin = plugin;
@@ -40,6 +42,7 @@ public class GUIConfigManager {
         recipeBookConfig = new RecipeBookGUIConfig(loadConfig("recipe-book.yml"));
         recipeDetailsConfig = new RecipeDetailsGUIConfig(loadConfig("recipe-details.yml"));
         achievementsConfig = new AchievementsGUIConfig(loadConfig("achievements.yml"));
+        recipeItemCache = new RecipeItemCache(); // Items were rendered with the old config
     }
     
     /**
@@ -82,4 +85,11 @@ public class GUIConfigManager {
     public AchievementsGUIConfig getAchievementsConfig() {
         return achievementsConfig;
     }
+
+    /**
+     * Get the rendered recipe book items shared by all players
+     */
+    public RecipeItemCache getRecipeItemCache() {
+        return recipeItemCache;
+    }
 }
@@ -2,6 +2,9 @@ package net.pwing.brewmasters.integrations;
 
 import me.clip.placeholderapi.expansion.PlaceholderExpansion;
 import net.pwing.brewmasters.BrewMasters;
+import net.pwing.brewmasters.managers.DrinkCooldownManager;
+import net.pwing.brewmasters.managers.LeaderboardManager;
+import net.pwing.brewmasters.managers.ServerFirstManager;
 import net.pwing.brewmasters.models.PlayerData;
 import org.bukkit.OfflinePlayer;
 import org.jetbrains.annotations.NotNull;
@@ -40,10 +43,59 @@ public class BrewMastersExpansion extends PlaceholderExpansion {
 
     @Override
     public String onRequest(OfflinePlayer player, @NotNull String params) {
+        // Leaderboards do not depend on the requesting player: top_<stat>_<rank>_<name|value>
+        if (params.startsWith("top_")) {
+            return getLeaderboardPlaceholder(params.substring(4));
+        }
+
+        // Server firsts: first_recipe_<recipe_id>, first_achievement_<achievement_id>
+        if (params.startsWith("first_recipe_")) {
+            ServerFirstManager.ServerFirst first = plugin.getServerFirstManager().getRecipeFirst(params.substring(13));
+            return first != null ? first.getPlayerName() : "";
+        }
+        if (params.startsWith("first_achievement_")) {
+            ServerFirstManager.ServerFirst first = plugin.getServerFirstManager().getAchievementFirst(params.substring(18));
+            return first != null ? first.getPlayerName() : "";
+        }
+
         if (player == null) {
             return "";
         }
 
+        // Effect placeholders are answered before loading player data (formatted first, it shares a prefix)
+        // Effect time remaining (formatted MM:SS): effect_time_formatted_<recipe_id>
+        if (params.startsWith("effect_time_formatted_")) {
+            String recipeId = params.substring(22);
+            return plugin.getPotionEffectManager().getFormattedTimeRemaining(player.getUniqueId(), recipeId);
+        }
+        
+        // Effect time remaining (in seconds): effect_time_<recipe_id>
+        if (params.startsWith("effect_time_")) {
+            String recipeId = params.substring(12);
+            return String.valueOf(plugin.getPotionEffectManager().getTimeRemaining(player.getUniqueId(), recipeId));
+        }
+        
+        // Check if player has active effect: effect_active_<recipe_id>
+        if (params.startsWith("effect_active_")) {
+            String recipeId = params.substring(14);
+            int timeRemaining = plugin.getPotionEffectManager().getTimeRemaining(player.getUniqueId(), recipeId);
+            return String.valueOf(timeRemaining > 0);
+        }
+        
+        // Drink cooldown remaining (formatted M:SS): cooldown_formatted_<recipe_id>
+        if (params.startsWith("cooldown_formatted_")) {
+            String recipeId = params.substring(19);
+            long remaining = plugin.getDrinkCooldownManager().getRemainingMillis(player.getUniqueId(), recipeId);
+            return DrinkCooldownManager.formatRemaining(remaining);
+        }
+        
+        // Drink cooldown remaining (in seconds): cooldown_<recipe_id>
+        if (params.startsWith("cooldown_")) {
+            String recipeId = params.substring(9);
+            long remaining = plugin.getDrinkCooldownManager().getRemainingMillis(player.getUniqueId(), recipeId);
+            return String.valueOf((remaining + 999) / 1000);
+        }
+        
         PlayerData data = plugin.getPlayerDataManager().getPlayerData(player.getUniqueId());
         
         // Total statistics
@@ -71,6 +123,9 @@ public class BrewMastersExpansion extends PlaceholderExpansion {
                 
             case "total_chains":
                 return String.valueOf(plugin.getBrewingChainManager().getAllChains().size());
+
+            case "chains_available":
+                return String.valueOf(plugin.getBrewingChainManager().getAvailableChainCount(player.getUniqueId()));
                 
             case "rank":
             case "brewing_rank":
@@ -125,25 +180,38 @@ public class BrewMastersExpansion extends PlaceholderExpansion {
             return String.valueOf(data.getStat(statName));
         }
         
-        // Effect time remaining (in seconds): effect_time_<recipe_id>
-        if (params.startsWith("effect_time_")) {
-            String recipeId = params.substring(12);
-            return String.valueOf(plugin.getPotionEffectManager().getTimeRemaining(player.getUniqueId(), recipeId));
+        return null; // Placeholder not found
+    }
+
+    /**
+     * Resolve a leaderboard placeholder: <stat>_<rank>_<name|value>
+     */
+    private String getLeaderboardPlaceholder(String params) {
+        String[] parts = params.split("_");
+        if (parts.length != 3) {
+            return null;
         }
-        
-        // Effect time remaining (formatted MM:SS): effect_time_formatted_<recipe_id>
-        if (params.startsWith("effect_time_formatted_")) {
-            String recipeId = params.substring(22);
-            return plugin.getPotionEffectManager().getFormattedTimeRemaining(player.getUniqueId(), recipeId);
+
+        LeaderboardManager.Stat stat = LeaderboardManager.Stat.fromKey(parts[0]);
+        if (stat == null) {
+            return null;
         }
-        
-        // Check if player has active effect: effect_active_<recipe_id>
-        if (params.startsWith("effect_active_")) {
-            String recipeId = params.substring(14);
-            int timeRemaining = plugin.getPotionEffectManager().getTimeRemaining(player.getUniqueId(), recipeId);
-            return String.valueOf(timeRemaining > 0);
+
+        int rank;
+        try {
+            rank = Integer.parseInt(parts[1]);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+
+        LeaderboardManager.Entry entry = plugin.getLeaderboardManager().getEntry(stat, rank);
+        switch (parts[2]) {
+            case "name":
+                return entry != null ? entry.getName() : "";
+            case "value":
+                return entry != null ? String.valueOf(entry.getValue()) : "0";
+            default:
+                return null;
         }
-        
-        return null; // Placeholder not found
     }
 }
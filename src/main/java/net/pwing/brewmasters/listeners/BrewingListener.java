@@ -1,6 +1,8 @@
 package net.pwing.brewmasters.listeners;
 
 import net.pwing.brewmasters.BrewMasters;
+import net.pwing.brewmasters.conditions.BrewCondition;
+import net.pwing.brewmasters.managers.AnalyticsManager;
 import net.pwing.brewmasters.models.BrewingRecipe;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
@@ -55,7 +57,10 @@ public class BrewingListener implements Listener {
             // Find matching recipe using the new ingredient system
             BrewingRecipe recipe = plugin.getRecipeManager().findRecipe(potion.getType(), ingredient);
 
-            if (recipe != null) {
+            if (recipe == null) {
+                // Nothing matched, maybe hint at a close recipe
+                plugin.getHintManager().onBrewUnmatched(brewer, potion.getType(), ingredient);
+            } else {
                 // Check if player has discovered this recipe
                 if (brewer != null && !plugin.getDiscoveryManager().canAccessRecipe(brewer, recipe.getId())) {
                     // Recipe not discovered yet
@@ -63,7 +68,11 @@ public class BrewingListener implements Listener {
                 }
 
                 // Check conditions
-                if (!recipe.checkConditions(brewer, location)) {
+                BrewCondition failedCondition = recipe.getFailedCondition(brewer, location);
+                if (failedCondition != null) {
+                    plugin.getAnalyticsManager().increment(AnalyticsManager.Metric.FAILURES,
+                            recipe.getId() + ":" + failedCondition.getType().name().toLowerCase());
+
                     // Conditions not met - cancel this slot's brewing
                     if (brewer != null) {
                         brewer.sendMessage(Component.text("Conditions not met for brewing this recipe!", NamedTextColor.RED));
@@ -85,8 +94,9 @@ public class BrewingListener implements Listener {
                 long delayTicks = Math.max(1L, brewingTime);
 
                 plugin.getServer().getScheduler().runTaskLater(plugin, () -> {
-                    ItemStack result = recipe.createResultPotion();
+                    ItemStack result = plugin.getRecipeManager().createBrewedPotion(recipe);
                     inventory.setItem(slot, result);
+                    plugin.getAnalyticsManager().increment(AnalyticsManager.Metric.BREWS, recipeId);
 
                     // Update the brewing stand
                     if (event.getBlock().getState() instanceof BrewingStand) {
@@ -100,6 +110,9 @@ public class BrewingListener implements Listener {
 
                         // Trigger chain progress tracking
                         plugin.getBrewingChainManager().onRecipeBrewed(brewer, recipeId);
+
+                        // Trigger discoveries that require brewing this recipe
+                        plugin.getDiscoveryManager().onRecipeBrewed(brewer, recipeId);
                     }
                 }, delayTicks);
             }
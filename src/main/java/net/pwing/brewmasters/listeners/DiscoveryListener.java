@@ -0,0 +1,125 @@
+package net.pwing.brewmasters.listeners;
+
+import net.pwing.brewmasters.BrewMasters;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.EntityDeathEvent;
+import org.bukkit.event.entity.EntityPickupItemEvent;
+import org.bukkit.event.inventory.CraftItemEvent;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerLevelChangeEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerTeleportEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+import org.bukkit.inventory.ItemStack;
+
+/**
+ * Feeds game events into the discovery engine
+ */
+public class DiscoveryListener implements Listener {
+
+    private final BrewMasters plugin;
+
+    public DiscoveryListener(BrewMasters plugin) {
+        this.plugin = plugin;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        Player player = event.getPlayer();
+        plugin.getDiscoveryManager().onPlayerJoin(player);
+        plugin.getDiscoveryManager().onPlayerMoved(player, player.getLocation());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntityDeath(EntityDeathEvent event) {
+        Player killer = event.getEntity().getKiller();
+        if (killer != null) {
+            plugin.getDiscoveryManager().onMobKilled(killer, event.getEntityType());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onCraftItem(CraftItemEvent event) {
+        if (!(event.getWhoClicked() instanceof Player)) {
+            return;
+        }
+
+        Player player = (Player) event.getWhoClicked();
+        ItemStack result = event.getRecipe().getResult();
+        int crafts = event.isShiftClick() ? getShiftClickCrafts(event.getInventory().getMatrix(), player, result) : 1;
+        if (crafts > 0) {
+            plugin.getDiscoveryManager().onItemCrafted(player, result.getType(), crafts * result.getAmount());
+        }
+    }
+
+    /**
+     * Get how many times a shift-click crafts: limited by the smallest ingredient stack and
+     * by the room for the results in the player's inventory
+     */
+    private static int getShiftClickCrafts(ItemStack[] matrix, Player player, ItemStack result) {
+        int crafts = Integer.MAX_VALUE;
+        for (ItemStack ingredient : matrix) {
+            if (ingredient != null && !ingredient.getType().isAir()) {
+                crafts = Math.min(crafts, ingredient.getAmount());
+            }
+        }
+        if (crafts == Integer.MAX_VALUE) {
+            return 0;
+        }
+
+        int room = 0;
+        int maxStackSize = result.getMaxStackSize();
+        for (ItemStack item : player.getInventory().getStorageContents()) {
+            if (item == null || item.getType().isAir()) {
+                room += maxStackSize;
+            } else if (item.isSimilar(result)) {
+                room += Math.max(0, maxStackSize - item.getAmount());
+            }
+        }
+        return Math.min(crafts, room / result.getAmount());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPickupItem(EntityPickupItemEvent event) {
+        if (!(event.getEntity() instanceof Player)) {
+            return;
+        }
+
+        ItemStack item = event.getItem().getItemStack();
+        plugin.getDiscoveryManager().onItemObtained((Player) event.getEntity(), item.getType(), item.getAmount());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onLevelChange(PlayerLevelChangeEvent event) {
+        plugin.getDiscoveryManager().onLevelChanged(event.getPlayer(), event.getOldLevel(), event.getNewLevel());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChangedWorld(PlayerChangedWorldEvent event) {
+        Player player = event.getPlayer();
+        plugin.getDiscoveryManager().onPlayerMoved(player, player.getLocation());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerMove(PlayerMoveEvent event) {
+        // Most move events are only head rotation or movement within a block
+        if (!event.hasChangedBlock()) {
+            return;
+        }
+        plugin.getDiscoveryManager().onPlayerMoved(event.getPlayer(), event.getTo());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerTeleport(PlayerTeleportEvent event) {
+        plugin.getDiscoveryManager().onPlayerMoved(event.getPlayer(), event.getTo());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onWorldUnload(WorldUnloadEvent event) {
+        plugin.getDiscoveryManager().unloadWorld(event.getWorld().getUID());
+    }
+}
@@ -32,7 +32,13 @@ public class PlayerListener implements Listener {
         // Save and unload player data when they leave
         plugin.getPlayerDataManager().unloadPlayerData(event.getPlayer());
 
-        // Clean up GUI references
-        plugin.getGUIListener().cleanupPlayer(event.getPlayer().getUniqueId());
+        // Drop cached achievement progress
+        plugin.getAchievementManager().unloadPlayer(event.getPlayer().getUniqueId());
+        plugin.getBrewingChainManager().unloadPlayer(event.getPlayer().getUniqueId());
+        plugin.getDiscoveryManager().unloadPlayer(event.getPlayer().getUniqueId());
+        plugin.getHintManager().unloadPlayer(event.getPlayer().getUniqueId());
+
+        // Periodic effects resume from the tracked effect on next login
+        plugin.getPeriodicEffectManager().cancel(event.getPlayer().getUniqueId());
     }
 }
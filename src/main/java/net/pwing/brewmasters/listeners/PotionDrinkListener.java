@@ -1,62 +1,176 @@
 package net.pwing.brewmasters.listeners;
 
+import com.destroystokyo.paper.event.entity.EntityRemoveFromWorldEvent;
 import net.pwing.brewmasters.BrewMasters;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.pwing.brewmasters.managers.AnalyticsManager;
+import net.pwing.brewmasters.managers.DrinkCooldownManager;
 import net.pwing.brewmasters.models.BrewingRecipe;
 import org.bukkit.Material;
+import org.bukkit.entity.AreaEffectCloud;
+import org.bukkit.entity.LivingEntity;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.entity.AreaEffectCloudApplyEvent;
+import org.bukkit.event.entity.LingeringPotionSplashEvent;
+import org.bukkit.event.entity.PotionSplashEvent;
 import org.bukkit.event.player.PlayerItemConsumeEvent;
 import org.bukkit.inventory.ItemStack;
-import org.bukkit.inventory.meta.ItemMeta;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 
 /**
- * Listens for players drinking potions to trigger drink commands
+ * Listens for players drinking, being splashed by, or standing in custom potions
+ * to trigger drink commands
  */
 public class PotionDrinkListener implements Listener {
-    
+
     private final BrewMasters plugin;
-    
+    // Cloud -> players it already triggered, dropped when the cloud despawns
+    private final Map<UUID, CloudTriggers> cloudTriggers = new HashMap<>();
+
     public PotionDrinkListener(BrewMasters plugin) {
         this.plugin = plugin;
     }
-    
+
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onPotionDrinkCooldown(PlayerItemConsumeEvent event) {
+        ItemStack item = event.getItem();
+        if (!isPotion(item.getType())) {
+            return;
+        }
+
+        Player player = event.getPlayer();
+        BrewingRecipe recipe = plugin.getRecipeManager().findRecipe(item);
+        if (recipe == null || recipe.getDrinkCooldown() <= 0 || player.hasPermission("brewmasters.cooldown.bypass")) {
+            return;
+        }
+
+        long remaining = plugin.getDrinkCooldownManager().getRemainingMillis(player.getUniqueId(), recipe);
+        if (remaining > 0) {
+            event.setCancelled(true);
+            player.sendMessage(Component.text("You must wait " + DrinkCooldownManager.formatRemaining(remaining)
+                    + " before drinking this potion again.", NamedTextColor.RED));
+        }
+    }
+
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onPotionDrink(PlayerItemConsumeEvent event) {
         ItemStack item = event.getItem();
-        
+
         // Check if it's a potion
         if (!isPotion(item.getType())) {
             return;
         }
-        
+
         Player player = event.getPlayer();
-        
-        // Try to match the potion to a custom recipe by checking display name
-        ItemMeta meta = item.getItemMeta();
-        if (meta != null && meta.hasDisplayName()) {
-            String displayName = meta.displayName().toString();
-            
-            // Search for matching recipe
-            for (BrewingRecipe recipe : plugin.getRecipeManager().getAllRecipes()) {
-                if (recipe.getResultName() != null && !recipe.getResultName().isEmpty()) {
-                    // Match by display name (basic check - could be enhanced)
-                    if (displayName.contains(recipe.getResultName()) || 
-                        displayName.contains(recipe.getId())) {
-                        
-                        // Trigger potion drink event
-                        plugin.getPotionEffectManager().onPotionDrunk(player, recipe);
-                        break;
-                    }
-                }
+
+        // Match the potion to a custom recipe by its tag (or name for legacy potions)
+        BrewingRecipe recipe = plugin.getRecipeManager().findRecipe(item);
+        if (recipe != null) {
+            plugin.getDrinkCooldownManager().startCooldown(player.getUniqueId(), recipe);
+            plugin.getAnalyticsManager().increment(AnalyticsManager.Metric.DRINKS, recipe.getId());
+            plugin.getPotionEffectManager().onPotionDrunk(player, recipe);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPotionSplash(PotionSplashEvent event) {
+        BrewingRecipe recipe = plugin.getRecipeManager().findRecipe(event.getPotion().getItem());
+        if (recipe == null) {
+            return;
+        }
+
+        List<Player> players = new ArrayList<>();
+        for (LivingEntity entity : event.getAffectedEntities()) {
+            if (entity instanceof Player) {
+                players.add((Player) entity);
+            }
+        }
+
+        // One registration for everyone hit by this throw
+        plugin.getPotionEffectManager().onPotionApplied(players, recipe);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onLingeringSplash(LingeringPotionSplashEvent event) {
+        // Carry the recipe over to the cloud, which outlives the thrown item
+        BrewingRecipe recipe = plugin.getRecipeManager().findRecipe(event.getEntity().getItem());
+        if (recipe != null) {
+            plugin.getRecipeManager().tagCloud(event.getAreaEffectCloud(), recipe);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onCloudApply(AreaEffectCloudApplyEvent event) {
+        AreaEffectCloud cloud = event.getEntity();
+        BrewingRecipe recipe = plugin.getRecipeManager().findRecipe(cloud);
+        if (recipe == null) {
+            return;
+        }
+
+        // Clouds re-apply every few ticks; only trigger once per player for each cloud
+        long now = System.currentTimeMillis();
+        CloudTriggers triggers = cloudTriggers.get(cloud.getUniqueId());
+        if (triggers == null) {
+            pruneExpiredClouds(now);
+            // Expire with the cloud's remaining lifetime in case its removal is missed
+            long remainingTicks = Math.max(0, cloud.getDuration() - cloud.getTicksLived());
+            triggers = new CloudTriggers(now + remainingTicks * 50L);
+            cloudTriggers.put(cloud.getUniqueId(), triggers);
+        }
+
+        List<Player> players = new ArrayList<>();
+        for (LivingEntity entity : event.getAffectedEntities()) {
+            if (entity instanceof Player && triggers.players.add(entity.getUniqueId())) {
+                players.add((Player) entity);
             }
         }
+
+        plugin.getPotionEffectManager().onPotionApplied(players, recipe);
+    }
+
+    @EventHandler
+    public void onCloudRemoved(EntityRemoveFromWorldEvent event) {
+        if (event.getEntity() instanceof AreaEffectCloud) {
+            cloudTriggers.remove(event.getEntity().getUniqueId());
+        }
     }
-    
+
+    private void pruneExpiredClouds(long now) {
+        Iterator<CloudTriggers> iterator = cloudTriggers.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().expiresAt <= now) {
+                iterator.remove();
+            }
+        }
+    }
+
     private boolean isPotion(Material material) {
         return material == Material.POTION ||
                material == Material.SPLASH_POTION ||
                material == Material.LINGERING_POTION;
     }
+
+    /**
+     * The players a lingering cloud has triggered
+     */
+    private static final class CloudTriggers {
+        private final Set<UUID> players = new HashSet<>();
+        private final long expiresAt;
+
+        private CloudTriggers(long expiresAt) {
+            this.expiresAt = expiresAt;
+        }
+    }
 }
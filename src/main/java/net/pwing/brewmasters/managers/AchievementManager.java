@@ -3,28 +3,67 @@ package net.pwing.brewmasters.managers;
 import net.pwing.brewmasters.BrewMasters;
 import net.pwing.brewmasters.models.Achievement;
 import net.pwing.brewmasters.models.PlayerData;
+import net.pwing.brewmasters.utils.CommandContext;
+import net.pwing.brewmasters.utils.CommandTemplate;
 import net.pwing.brewmasters.utils.TextUtils;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
-import org.bukkit.Sound;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.entity.Player;
 
+import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Manages brewing achievements and progress tracking
  */
 public class AchievementManager {
 
+    // Triggers whose achievements unlock when a counter reaches their target value
+    private static final Set<Achievement.AchievementTrigger> MILESTONE_TRIGGERS = EnumSet.of(
+            Achievement.AchievementTrigger.RECIPES_DISCOVERED,
+            Achievement.AchievementTrigger.POTIONS_BREWED,
+            Achievement.AchievementTrigger.CHAINS_COMPLETED);
+
+    private static final Component ACHIEVEMENT_HEADER = TextUtils.miniMessage(
+            "<gradient:gold:yellow>🏆 Achievement Unlocked! 🏆</gradient>");
+    private static final Component REWARD_LINE = TextUtils.miniMessage(
+            "<gradient:green:lime>✨ You received a reward!</gradient>");
+
     private final BrewMasters plugin;
     private final Map<String, Achievement> achievements;
+    // Achievements grouped by trigger, so a trigger only looks at its own achievements
+    private final Map<Achievement.AchievementTrigger, List<Achievement>> achievementsByTrigger;
+    // Milestone achievements sorted by target value
+    private final Map<Achievement.AchievementTrigger, Achievement[]> milestones;
+    // Per player, indexed by trigger ordinal: position of the next milestone to reach (-1 = not computed yet)
+    private final Map<UUID, int[]> milestoneCursors;
+    // Recipe id -> SPECIFIC_RECIPE_BREWED achievements targeting it
+    private final Map<String, List<Achievement>> specificByRecipe;
+    // RECIPE_SET_DISCOVERED achievements, with their distinct recipes, and recipe id -> indices into them
+    private final List<Achievement> recipeSets;
+    private final List<Set<String>> recipeSetTargets;
+    private final Map<String, int[]> recipeSetsByRecipe;
+    // Per player, indexed like recipeSets: recipes of the set still undiscovered
+    private final Map<UUID, int[]> recipeSetRemaining;
+    // Recipes discovered since the player joined
+    private final Map<UUID, Integer> sessionDiscoveries;
     private boolean achievementsEnabled;
     private boolean showAchievementNotifications;
 
     public AchievementManager(BrewMasters plugin) {
         this.plugin = plugin;
         this.achievements = new HashMap<>();
+        this.achievementsByTrigger = new EnumMap<>(Achievement.AchievementTrigger.class);
+        this.milestones = new EnumMap<>(Achievement.AchievementTrigger.class);
+        this.milestoneCursors = new ConcurrentHashMap<>();
+        this.specificByRecipe = new HashMap<>();
+        this.recipeSets = new ArrayList<>();
+        this.recipeSetTargets = new ArrayList<>();
+        this.recipeSetsByRecipe = new HashMap<>();
+        this.recipeSetRemaining = new ConcurrentHashMap<>();
+        this.sessionDiscoveries = new ConcurrentHashMap<>();
         loadAchievements();
     }
 
@@ -33,6 +72,14 @@ public class AchievementManager {
      */
     public void loadAchievements() {
         achievements.clear();
+        achievementsByTrigger.clear();
+        milestones.clear();
+        milestoneCursors.clear();
+        specificByRecipe.clear();
+        recipeSets.clear();
+        recipeSetTargets.clear();
+        recipeSetsByRecipe.clear();
+        recipeSetRemaining.clear();
 
         ConfigurationSection achievementSection = plugin.getConfig().getConfigurationSection("achievements");
         if (achievementSection == null) {
@@ -59,6 +106,59 @@ public class AchievementManager {
                 }
             }
         }
+
+        indexAchievements();
+    }
+
+    /**
+     * Group achievements by trigger and sort milestones by target value
+     */
+    private void indexAchievements() {
+        for (Achievement achievement : achievements.values()) {
+            achievementsByTrigger.computeIfAbsent(achievement.getTrigger(), k -> new ArrayList<>()).add(achievement);
+        }
+
+        for (Achievement.AchievementTrigger trigger : MILESTONE_TRIGGERS) {
+            List<Achievement> list = achievementsByTrigger.getOrDefault(trigger, Collections.emptyList());
+            Achievement[] sorted = list.toArray(new Achievement[0]);
+            Arrays.sort(sorted, Comparator.comparingInt(Achievement::getTargetValue));
+            milestones.put(trigger, sorted);
+        }
+
+        for (Achievement achievement : achievementsByTrigger.getOrDefault(
+                Achievement.AchievementTrigger.SPECIFIC_RECIPE_BREWED, Collections.emptyList())) {
+            if (achievement.getTargetRecipe() != null) {
+                specificByRecipe.computeIfAbsent(achievement.getTargetRecipe(), k -> new ArrayList<>()).add(achievement);
+            }
+        }
+
+        Map<String, List<Integer>> setsByRecipe = new HashMap<>();
+        for (Achievement achievement : achievementsByTrigger.getOrDefault(
+                Achievement.AchievementTrigger.RECIPE_SET_DISCOVERED, Collections.emptyList())) {
+            if (achievement.getTargetRecipes() == null || achievement.getTargetRecipes().isEmpty()) {
+                continue;
+            }
+
+            Set<String> targets = new LinkedHashSet<>(achievement.getTargetRecipes());
+            int index = recipeSets.size();
+            recipeSets.add(achievement);
+            recipeSetTargets.add(targets);
+            for (String recipeId : targets) {
+                setsByRecipe.computeIfAbsent(recipeId, k -> new ArrayList<>()).add(index);
+            }
+        }
+        for (Map.Entry<String, List<Integer>> entry : setsByRecipe.entrySet()) {
+            recipeSetsByRecipe.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+        }
+    }
+
+    /**
+     * Forget cached progress for a player, e.g. when they log out
+     */
+    public void unloadPlayer(UUID playerId) {
+        milestoneCursors.remove(playerId);
+        recipeSetRemaining.remove(playerId);
+        sessionDiscoveries.remove(playerId);
     }
 
     /**
@@ -77,22 +177,28 @@ public class AchievementManager {
 
         PlayerData data = plugin.getPlayerDataManager().getPlayerData(player);
 
+        int discovered = data.getTotalRecipesDiscovered();
+
         // Check first discovery achievement
-        if (data.getDiscoveredRecipes().size() == 1) {
+        if (discovered == 1) {
             checkAchievement(player, Achievement.AchievementTrigger.FIRST_DISCOVERY);
         }
 
         // Check recipes discovered milestones
-        checkAchievement(player, Achievement.AchievementTrigger.RECIPES_DISCOVERED);
+        checkMilestones(player, data, Achievement.AchievementTrigger.RECIPES_DISCOVERED, discovered);
 
         // Check master brewer achievement
         int totalRecipes = plugin.getRecipeManager().getRecipeCount();
-        if (data.getDiscoveredRecipes().size() >= totalRecipes) {
+        if (discovered >= totalRecipes) {
             checkAchievement(player, Achievement.AchievementTrigger.MASTER_BREWER);
         }
 
         // Check recipe set discoveries
-        checkRecipeSetAchievements(player);
+        checkRecipeSetAchievements(player, data, recipeId);
+
+        // Check discoveries this session
+        int session = sessionDiscoveries.merge(player.getUniqueId(), 1, Integer::sum);
+        checkCountAchievements(player, data, Achievement.AchievementTrigger.SESSION_DISCOVERIES, session);
     }
 
     /**
@@ -107,6 +213,7 @@ public class AchievementManager {
         // Increment brewing stats
         data.incrementStat("total_brewed");
         data.incrementStat("recipe_" + recipeId + "_brewed");
+        plugin.getLeaderboardManager().update(player, LeaderboardManager.Stat.BREWED, data.getTotalPotionsBrewed());
 
         // Check first brew achievement
         if (data.getStat("total_brewed") == 1) {
@@ -114,10 +221,17 @@ public class AchievementManager {
         }
 
         // Check potions brewed milestones
-        checkAchievement(player, Achievement.AchievementTrigger.POTIONS_BREWED);
+        checkMilestones(player, data, Achievement.AchievementTrigger.POTIONS_BREWED, data.getStat("total_brewed"));
 
         // Check specific recipe brewing achievements
         checkSpecificRecipeAchievements(player, recipeId);
+
+        // Check brewing streak achievements
+        int streak = data.recordBrewDay(LocalDate.now().toEpochDay());
+        checkCountAchievements(player, data, Achievement.AchievementTrigger.BREWING_STREAK, streak);
+
+        // Check brewing within a time window achievements
+        checkWindowAchievements(player, data);
     }
 
     /**
@@ -139,96 +253,161 @@ public class AchievementManager {
         }
 
         // Check chain completion milestones
-        checkAchievement(player, Achievement.AchievementTrigger.CHAINS_COMPLETED);
+        checkMilestones(player, data, Achievement.AchievementTrigger.CHAINS_COMPLETED, data.getStat("chains_completed"));
     }
 
     /**
-     * Check achievements for a specific trigger
+     * Unlock every achievement of a one-off trigger (first brew, master brewer...)
      */
     private void checkAchievement(Player player, Achievement.AchievementTrigger trigger) {
+        List<Achievement> triggered = achievementsByTrigger.get(trigger);
+        if (triggered == null) {
+            return;
+        }
+
         PlayerData data = plugin.getPlayerDataManager().getPlayerData(player);
+        for (Achievement achievement : triggered) {
+            if (!data.hasAchievement(achievement.getId())) {
+                unlockAchievement(player, achievement);
+            }
+        }
+    }
 
-        for (Achievement achievement : achievements.values()) {
-            if (achievement.getTrigger() != trigger)
-                continue;
-            if (data.hasAchievement(achievement.getId()))
-                continue;
+    /**
+     * Unlock milestone achievements whose target the value has reached
+     * Only compares against the next unreached threshold unless one is crossed
+     */
+    private void checkMilestones(Player player, PlayerData data, Achievement.AchievementTrigger trigger, int value) {
+        Achievement[] sorted = milestones.get(trigger);
+        if (sorted == null || sorted.length == 0) {
+            return;
+        }
 
-            boolean unlocked = false;
+        int[] cursors = milestoneCursors.computeIfAbsent(player.getUniqueId(), k -> newCursors());
+        int cursor = cursors[trigger.ordinal()];
+        if (cursor < 0) {
+            // Start at the first milestone not unlocked yet, so ones added later are still awarded
+            cursor = 0;
+            while (cursor < sorted.length && data.hasAchievement(sorted[cursor].getId())) {
+                cursor++;
+            }
+        }
 
-            switch (trigger) {
-                case FIRST_DISCOVERY:
-                case FIRST_BREW:
-                case FIRST_CHAIN:
-                case MASTER_BREWER:
-                    unlocked = true;
-                    break;
+        // Sorted by target, so nothing past the first unreached threshold can be reached either
+        while (cursor < sorted.length && value >= sorted[cursor].getTargetValue()) {
+            if (!data.hasAchievement(sorted[cursor].getId())) {
+                unlockAchievement(player, sorted[cursor]);
+            }
+            cursor++;
+        }
 
-                case RECIPES_DISCOVERED:
-                    unlocked = data.getDiscoveredRecipes().size() >= achievement.getTargetValue();
-                    break;
+        cursors[trigger.ordinal()] = cursor;
+    }
 
-                case POTIONS_BREWED:
-                    unlocked = data.getStat("total_brewed") >= achievement.getTargetValue();
-                    break;
+    /**
+     * Unlock achievements of a trigger whose target the value has reached
+     */
+    private void checkCountAchievements(Player player, PlayerData data, Achievement.AchievementTrigger trigger,
+                                        int value) {
+        List<Achievement> triggered = achievementsByTrigger.get(trigger);
+        if (triggered == null) {
+            return;
+        }
+
+        for (Achievement achievement : triggered) {
+            if (value >= achievement.getTargetValue() && !data.hasAchievement(achievement.getId())) {
+                unlockAchievement(player, achievement);
+            }
+        }
+    }
 
-                case CHAINS_COMPLETED:
-                    unlocked = data.getStat("chains_completed") >= achievement.getTargetValue();
-                    break;
+    /**
+     * Count a brew towards every locked POTIONS_BREWED_WITHIN achievement
+     */
+    private void checkWindowAchievements(Player player, PlayerData data) {
+        List<Achievement> triggered = achievementsByTrigger.get(Achievement.AchievementTrigger.POTIONS_BREWED_WITHIN);
+        if (triggered == null) {
+            return;
+        }
 
-                case SPECIFIC_RECIPE_BREWED:
-                case RECIPE_SET_DISCOVERED:
-                    // These are handled by separate methods
-                    break;
+        long now = System.currentTimeMillis();
+        for (Achievement achievement : triggered) {
+            if (data.hasAchievement(achievement.getId())) {
+                continue;
             }
 
-            if (unlocked) {
+            int brewed = data.getWindowCounter(achievement.getId(), achievement.getWindow() * 1000L).add(now, 1);
+            if (brewed >= achievement.getTargetValue()) {
                 unlockAchievement(player, achievement);
             }
         }
     }
 
+    private static int[] newCursors() {
+        int[] cursors = new int[Achievement.AchievementTrigger.values().length];
+        Arrays.fill(cursors, -1);
+        return cursors;
+    }
+
     /**
      * Check specific recipe brewing achievements
      */
     private void checkSpecificRecipeAchievements(Player player, String recipeId) {
-        PlayerData data = plugin.getPlayerDataManager().getPlayerData(player);
+        List<Achievement> targeting = specificByRecipe.get(recipeId);
+        if (targeting == null) {
+            return;
+        }
 
-        for (Achievement achievement : achievements.values()) {
-            if (achievement.getTrigger() != Achievement.AchievementTrigger.SPECIFIC_RECIPE_BREWED)
-                continue;
-            if (data.hasAchievement(achievement.getId()))
-                continue;
-            if (!recipeId.equals(achievement.getTargetRecipe()))
-                continue;
+        PlayerData data = plugin.getPlayerDataManager().getPlayerData(player);
+        int brewCount = data.getStat("recipe_" + recipeId + "_brewed");
 
-            int brewCount = data.getStat("recipe_" + recipeId + "_brewed");
-            if (brewCount >= achievement.getTargetValue()) {
+        for (Achievement achievement : targeting) {
+            if (brewCount >= achievement.getTargetValue() && !data.hasAchievement(achievement.getId())) {
                 unlockAchievement(player, achievement);
             }
         }
     }
 
     /**
-     * Check recipe set achievements
+     * Check the recipe set achievements that contain a newly discovered recipe
      */
-    private void checkRecipeSetAchievements(Player player) {
-        PlayerData data = plugin.getPlayerDataManager().getPlayerData(player);
-        Set<String> discoveredRecipes = data.getDiscoveredRecipes();
+    private void checkRecipeSetAchievements(Player player, PlayerData data, String recipeId) {
+        int[] sets = recipeSetsByRecipe.get(recipeId);
+        if (sets == null) {
+            return;
+        }
 
-        for (Achievement achievement : achievements.values()) {
-            if (achievement.getTrigger() != Achievement.AchievementTrigger.RECIPE_SET_DISCOVERED)
-                continue;
-            if (data.hasAchievement(achievement.getId()))
-                continue;
+        int[] remaining = recipeSetRemaining.get(player.getUniqueId());
+        if (remaining == null) {
+            // Counted from the discovered set, which already includes this recipe
+            remaining = countRemaining(data);
+            recipeSetRemaining.put(player.getUniqueId(), remaining);
+        } else {
+            for (int set : sets) {
+                remaining[set]--;
+            }
+        }
 
-            List<String> targetRecipes = achievement.getTargetRecipes();
-            if (targetRecipes != null && discoveredRecipes.containsAll(targetRecipes)) {
+        for (int set : sets) {
+            Achievement achievement = recipeSets.get(set);
+            if (remaining[set] <= 0 && !data.hasAchievement(achievement.getId())) {
                 unlockAchievement(player, achievement);
             }
         }
     }
 
+    private int[] countRemaining(PlayerData data) {
+        int[] remaining = new int[recipeSets.size()];
+        for (int set = 0; set < remaining.length; set++) {
+            for (String recipeId : recipeSetTargets.get(set)) {
+                if (!data.hasDiscoveredRecipe(recipeId)) {
+                    remaining[set]++;
+                }
+            }
+        }
+        return remaining;
+    }
+
     /**
      * Unlock an achievement for a player
      */
@@ -237,14 +416,20 @@ public class AchievementManager {
 
         if (data.unlockAchievement(achievement.getId())) {
             plugin.getPlayerDataManager().savePlayerData(player);
+            plugin.getLeaderboardManager().update(player, LeaderboardManager.Stat.ACHIEVEMENTS,
+                    data.getTotalAchievements());
 
             if (showAchievementNotifications) {
                 sendAchievementNotification(player, achievement);
             }
+            plugin.getServerFirstManager().claimAchievement(player, achievement);
 
             // Give reward if present
             if (achievement.getReward() != null) {
-                achievement.getReward().giveReward(player);
+                CommandContext context = CommandContext.of(player)
+                        .set(CommandTemplate.Placeholder.ACHIEVEMENT_ID, achievement.getId())
+                        .set(CommandTemplate.Placeholder.ACHIEVEMENT_NAME, achievement.getName());
+                achievement.getReward().giveReward(player, plugin.getCommandManager(), context);
             }
         }
     }
@@ -253,22 +438,17 @@ public class AchievementManager {
      * Send achievement notification to player
      */
     private void sendAchievementNotification(Player player, Achievement achievement) {
-        player.sendMessage(Component.empty());
-        player.sendMessage(TextUtils.miniMessage(
-            "<gradient:gold:yellow>🏆 Achievement Unlocked! 🏆</gradient>"
-        ));
+        List<Component> lines = new ArrayList<>(4);
+        lines.add(ACHIEVEMENT_HEADER);
         // Achievement name might already have MiniMessage formatting from config
-        player.sendMessage(TextUtils.parseAuto(achievement.getName()));
-        player.sendMessage(Component.text(achievement.getDescription(), NamedTextColor.GRAY));
+        lines.add(TextUtils.parseAuto(achievement.getName()));
+        lines.add(Component.text(achievement.getDescription(), NamedTextColor.GRAY));
 
         if (achievement.getReward() != null) {
-            player.sendMessage(TextUtils.miniMessage("<gradient:green:lime>✨ You received a reward!</gradient>"));
+            lines.add(REWARD_LINE);
         }
 
-        player.sendMessage(Component.empty());
-
-        // Play achievement sound
-        player.playSound(player.getLocation(), Sound.UI_TOAST_CHALLENGE_COMPLETE, 1.0f, 1.0f);
+        plugin.getNotificationManager().notify(player, NotificationManager.Kind.ACHIEVEMENT, lines);
     }
 
     /**
@@ -308,10 +488,16 @@ public class AchievementManager {
             case RECIPE_SET_DISCOVERED:
                 List<String> targetRecipes = achievement.getTargetRecipes();
                 if (targetRecipes != null) {
-                    Set<String> discovered = data.getDiscoveredRecipes();
-                    return (int) targetRecipes.stream().filter(discovered::contains).count();
+                    return (int) targetRecipes.stream().filter(data::hasDiscoveredRecipe).count();
                 }
                 return 0;
+            case POTIONS_BREWED_WITHIN:
+                return data.getWindowCounter(achievement.getId(), achievement.getWindow() * 1000L)
+                        .getTotal(System.currentTimeMillis());
+            case BREWING_STREAK:
+                return data.getBrewStreak(LocalDate.now().toEpochDay());
+            case SESSION_DISCOVERIES:
+                return sessionDiscoveries.getOrDefault(player.getUniqueId(), 0);
             default:
                 return data.hasAchievement(achievement.getId()) ? 1 : 0;
         }
@@ -0,0 +1,228 @@
+package net.pwing.brewmasters.managers;
+
+import net.pwing.brewmasters.BrewMasters;
+import org.bukkit.Bukkit;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Server-wide usage counters for recipes and conditions
+ *
+ * Counters are {@link LongAdder}s so brew and drink handlers can increment them
+ * without contending. Once an hour the totals are snapshotted into a ring of
+ * per-hour counts covering the last day. Counts start at zero on each server start.
+ */
+public class AnalyticsManager {
+
+    public static final int HOURS = 24;
+    private static final long HOUR_TICKS = 20L * 60 * 60;
+
+    private final BrewMasters plugin;
+    private final Map<Metric, Map<String, Counter>> counters = new EnumMap<>(Metric.class);
+    private volatile int currentHour;
+    private int taskId = -1;
+
+    public AnalyticsManager(BrewMasters plugin) {
+        this.plugin = plugin;
+        for (Metric metric : Metric.values()) {
+            counters.put(metric, new ConcurrentHashMap<>());
+        }
+        taskId = Bukkit.getScheduler().scheduleSyncRepeatingTask(plugin, this::snapshot, HOUR_TICKS, HOUR_TICKS);
+    }
+
+    /**
+     * Count one event
+     * @param metric What happened
+     * @param key The recipe id, or recipe:condition for failures
+     */
+    public void increment(Metric metric, String key) {
+        counters.get(metric).computeIfAbsent(key, k -> new Counter()).total.increment();
+    }
+
+    /**
+     * Close the current hour: record what each counter gained since the last snapshot
+     */
+    private void snapshot() {
+        int hour = (currentHour + 1) % HOURS;
+        for (Map<String, Counter> metricCounters : counters.values()) {
+            for (Counter counter : metricCounters.values()) {
+                counter.snapshot(hour);
+            }
+        }
+        currentHour = hour;
+    }
+
+    /**
+     * Get all counters of a metric, sorted by total (highest first)
+     */
+    public List<Stat> getStats(Metric metric) {
+        List<Stat> stats = new ArrayList<>();
+        for (Map.Entry<String, Counter> entry : counters.get(metric).entrySet()) {
+            stats.add(entry.getValue().toStat(entry.getKey(), currentHour));
+        }
+        stats.sort((a, b) -> Long.compare(b.getTotal(), a.getTotal()));
+        return stats;
+    }
+
+    /**
+     * Export every counter to a CSV file in the plugin folder, off the main thread
+     * @param callback Receives the written file, or null if writing failed (called on the main thread)
+     */
+    public void exportCsv(Consumer<File> callback) {
+        // Copy on the calling thread so the file matches the moment of the request
+        Map<Metric, List<Stat>> snapshot = new EnumMap<>(Metric.class);
+        for (Metric metric : Metric.values()) {
+            snapshot.put(metric, getStats(metric));
+        }
+
+        String fileName = "analytics-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + ".csv";
+        File file = new File(plugin.getDataFolder(), fileName);
+
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            File written = file;
+            try (PrintWriter writer = new PrintWriter(file, StandardCharsets.UTF_8)) {
+                StringBuilder header = new StringBuilder("metric,key,total,current_hour");
+                for (int i = 1; i < HOURS; i++) {
+                    header.append(",hour_minus_").append(i);
+                }
+                writer.println(header);
+
+                for (Map.Entry<Metric, List<Stat>> entry : snapshot.entrySet()) {
+                    for (Stat stat : entry.getValue()) {
+                        StringBuilder line = new StringBuilder();
+                        line.append(entry.getKey().getKey()).append(',')
+                                .append(stat.getKey()).append(',')
+                                .append(stat.getTotal());
+                        for (long count : stat.getHourly()) {
+                            line.append(',').append(count);
+                        }
+                        writer.println(line);
+                    }
+                }
+            } catch (IOException e) {
+                plugin.getLogger().severe("Failed to export analytics: " + e.getMessage());
+                written = null;
+            }
+
+            File result = written;
+            Bukkit.getScheduler().runTask(plugin, () -> callback.accept(result));
+        });
+    }
+
+    /**
+     * Stop the snapshot task
+     */
+    public void shutdown() {
+        if (taskId != -1) {
+            Bukkit.getScheduler().cancelTask(taskId);
+            taskId = -1;
+        }
+    }
+
+    /**
+     * What is being counted
+     */
+    public enum Metric {
+        BREWS("brews"),
+        FAILURES("failures"),
+        DISCOVERIES("discoveries"),
+        DRINKS("drinks");
+
+        private final String key;
+
+        Metric(String key) {
+            this.key = key;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public static Metric fromKey(String key) {
+            for (Metric metric : values()) {
+                if (metric.key.equalsIgnoreCase(key)) {
+                    return metric;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * One counter: a running total plus the count of each of the last {@link #HOURS} hours
+     */
+    private static final class Counter {
+        private final LongAdder total = new LongAdder();
+        private final long[] hourly = new long[HOURS];
+        private long snapshotTotal; // Total at the last snapshot
+
+        private synchronized void snapshot(int newHour) {
+            long now = total.sum();
+            hourly[Math.floorMod(newHour - 1, HOURS)] = now - snapshotTotal;
+            snapshotTotal = now;
+        }
+
+        private synchronized Stat toStat(String key, int currentHour) {
+            long now = total.sum();
+            long[] counts = new long[HOURS];
+            counts[0] = now - snapshotTotal;
+            for (int i = 1; i < HOURS; i++) {
+                counts[i] = hourly[Math.floorMod(currentHour - i, HOURS)];
+            }
+            return new Stat(key, now, counts);
+        }
+    }
+
+    /**
+     * A point-in-time copy of a counter
+     */
+    public static final class Stat {
+        private final String key;
+        private final long total;
+        private final long[] hourly;
+
+        private Stat(String key, long total, long[] hourly) {
+            this.key = key;
+            this.total = total;
+            this.hourly = hourly;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+
+        /**
+         * Get counts per hour, index 0 being the current (unfinished) hour and 1 the hour before
+         */
+        public long[] getHourly() {
+            return hourly.clone();
+        }
+
+        /**
+         * Get the count over the last day
+         */
+        public long getLastDay() {
+            long sum = 0;
+            for (long count : hourly) {
+                sum += count;
+            }
+            return sum;
+        }
+    }
+}
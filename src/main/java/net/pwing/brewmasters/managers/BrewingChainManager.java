@@ -2,7 +2,10 @@ package net.pwing.brewmasters.managers;
 
 import net.pwing.brewmasters.BrewMasters;
 import net.pwing.brewmasters.models.BrewingChain;
+import net.pwing.brewmasters.models.ChainProgress;
 import net.pwing.brewmasters.models.PlayerData;
+import net.pwing.brewmasters.utils.CommandContext;
+import net.pwing.brewmasters.utils.CommandTemplate;
 import net.pwing.brewmasters.utils.TextUtils;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
@@ -10,21 +13,31 @@ import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.entity.Player;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Manages multi-step brewing chains
  */
 public class BrewingChainManager {
 
+    private static final Component CHAIN_COMPLETED_HEADER = TextUtils.miniMessage(
+            "<gradient:gold:yellow>🎉 Chain Completed:</gradient> ");
+    private static final Component CHAIN_PROGRESS_HEADER = TextUtils.miniMessage(
+            "<gradient:green:lime>⛓ Chain Progress:</gradient> ");
+
     private final BrewMasters plugin;
     private final Map<String, BrewingChain> chains;
-    private final Map<String, Set<String>> recipeToChains; // Maps recipe IDs to chain IDs
+    private final List<BrewingChain> chainList; // Chains by index
+    private final Map<String, int[]> recipeToChains; // Maps recipe IDs to chain indices
+    private final Map<UUID, BitSet> availableChains; // Per player: indices of chains with a discovered recipe
     private boolean chainsEnabled;
 
     public BrewingChainManager(BrewMasters plugin) {
         this.plugin = plugin;
         this.chains = new HashMap<>();
+        this.chainList = new ArrayList<>();
         this.recipeToChains = new HashMap<>();
+        this.availableChains = new ConcurrentHashMap<>();
         loadConfiguration();
     }
 
@@ -40,7 +53,9 @@ public class BrewingChainManager {
      */
     public void loadChains() {
         chains.clear();
+        chainList.clear();
         recipeToChains.clear();
+        availableChains.clear(); // Chain indices change, rebuilt on next lookup
 
         ConfigurationSection chainsSection = plugin.getConfig().getConfigurationSection("brewing-chains");
         if (chainsSection == null) {
@@ -64,11 +79,20 @@ public class BrewingChainManager {
                 BrewingChain chain = BrewingChain.fromConfig(chainId, chainSection);
                 
                 if (chain != null) {
+                    int chainIndex = chainList.size();
                     chains.put(chainId, chain);
-                    
+                    chainList.add(chain);
+
                     // Build recipe to chains mapping
                     for (BrewingChain.ChainStep step : chain.getSteps()) {
-                        recipeToChains.computeIfAbsent(step.getRecipeId(), k -> new HashSet<>()).add(chainId);
+                        int[] indices = recipeToChains.get(step.getRecipeId());
+                        if (indices == null) {
+                            recipeToChains.put(step.getRecipeId(), new int[] {chainIndex});
+                        } else if (indices[indices.length - 1] != chainIndex) {
+                            indices = Arrays.copyOf(indices, indices.length + 1);
+                            indices[indices.length - 1] = chainIndex;
+                            recipeToChains.put(step.getRecipeId(), indices);
+                        }
                     }
                     
                     plugin.getLogger().info("Loaded brewing chain: " + chainId);
@@ -105,7 +129,11 @@ public class BrewingChainManager {
      * Get chains that contain a specific recipe
      */
     public Set<String> getChainsForRecipe(String recipeId) {
-        return recipeToChains.getOrDefault(recipeId, new HashSet<>());
+        Set<String> chainIds = new HashSet<>();
+        for (int chainIndex : recipeToChains.getOrDefault(recipeId, new int[0])) {
+            chainIds.add(chainList.get(chainIndex).getId());
+        }
+        return chainIds;
     }
 
     /**
@@ -116,55 +144,60 @@ public class BrewingChainManager {
             return;
         }
 
-        Set<String> affectedChains = getChainsForRecipe(recipeId);
-        if (affectedChains.isEmpty()) {
+        int[] affectedChains = recipeToChains.get(recipeId);
+        if (affectedChains == null) {
             return;
         }
-        
-        for (String chainId : affectedChains) {
-            BrewingChain chain = chains.get(chainId);
-            if (chain == null) {
+
+        PlayerData playerData = plugin.getPlayerDataManager().getPlayerData(player);
+        for (int chainIndex : affectedChains) {
+            BrewingChain chain = chainList.get(chainIndex);
+            if (playerData.hasCompletedChain(chain.getId())) {
+                continue; // Completed chains never progress or complete again
+            }
+
+            // Check if this recipe completes a step of the chain
+            ChainProgress progress = getProgress(playerData, chain);
+            int stepIndex = chain.findStep(progress, recipeId);
+            if (stepIndex < 0) {
                 continue;
             }
 
-            // Check if this recipe is the next step in the chain
-            List<String> completedRecipes = getCompletedChainRecipes(player, chainId);
-            BrewingChain.ChainStep nextStep = chain.getNextStep(completedRecipes);
-            
-            if (nextStep != null && nextStep.getRecipeId().equals(recipeId)) {
-                // Player completed the next step
-                markChainStepCompleted(player, chainId, recipeId);
-                
-                // Give step reward if any
-                if (nextStep.getStepReward() != null) {
-                    giveChainReward(player, nextStep.getStepReward());
-                }
-                
-                // Check if chain is now completed
-                if (chain.isCompleted(getCompletedChainRecipes(player, chainId))) {
-                    onChainCompleted(player, chain);
-                }
-                
-                // Notify player of progress
-                notifyChainProgress(player, chain, recipeId);
+            // Player completed the step
+            chain.completeStep(progress, stepIndex);
+            BrewingChain.ChainStep step = chain.getSteps().get(stepIndex);
+
+            // Give step reward if any
+            if (step.getStepReward() != null) {
+                giveChainReward(player, chain, step.getStepReward());
+            }
+
+            // Check if chain is now completed
+            if (chain.isCompleted(progress)) {
+                onChainCompleted(player, chain);
             }
+
+            // Notify player of progress
+            notifyChainProgress(player, chain, progress);
         }
     }
 
     /**
-     * Get completed recipes for a specific chain
+     * Get a player's progress through a chain
      */
-    public List<String> getCompletedChainRecipes(Player player, String chainId) {
-        PlayerData playerData = plugin.getPlayerDataManager().getPlayerData(player);
-        return playerData.getCompletedChainRecipes(chainId);
+    public ChainProgress getProgress(Player player, BrewingChain chain) {
+        return getProgress(plugin.getPlayerDataManager().getPlayerData(player), chain);
     }
 
-    /**
-     * Mark a chain step as completed
-     */
-    private void markChainStepCompleted(Player player, String chainId, String recipeId) {
-        PlayerData playerData = plugin.getPlayerDataManager().getPlayerData(player);
-        playerData.completeChainStep(chainId, recipeId);
+    private ChainProgress getProgress(PlayerData playerData, BrewingChain chain) {
+        ChainProgress progress = playerData.getChainProgress(chain.getId());
+        if (progress == null) {
+            // Convert progress saved as recipe IDs the first time the chain is looked up
+            List<String> legacy = playerData.removeLegacyChainProgress(chain.getId());
+            progress = legacy != null ? chain.toProgress(legacy) : new ChainProgress();
+            playerData.setChainProgress(chain.getId(), progress);
+        }
+        return progress;
     }
 
     /**
@@ -173,20 +206,22 @@ public class BrewingChainManager {
     private void onChainCompleted(Player player, BrewingChain chain) {
         // Give completion reward
         if (chain.getCompletionReward() != null) {
-            giveChainReward(player, chain.getCompletionReward());
+            giveChainReward(player, chain, chain.getCompletionReward());
         }
 
         // Mark chain as completed
         PlayerData playerData = plugin.getPlayerDataManager().getPlayerData(player);
         playerData.completeChain(chain.getId());
+        plugin.getLeaderboardManager().update(player, LeaderboardManager.Stat.CHAINS,
+                playerData.getTotalChainsCompleted());
 
         // Notify player
-        player.sendMessage(TextUtils.miniMessage(
-            "<gradient:gold:yellow>🎉 Chain Completed:</gradient> "
-        ).append(TextUtils.parseAuto(chain.getName())));
+        List<Component> lines = new ArrayList<>(2);
+        lines.add(CHAIN_COMPLETED_HEADER.append(TextUtils.parseAuto(chain.getName())));
         if (chain.getDescription() != null) {
-            player.sendMessage(Component.text(chain.getDescription(), NamedTextColor.GRAY));
+            lines.add(Component.text(chain.getDescription(), NamedTextColor.GRAY));
         }
+        plugin.getNotificationManager().notify(player, NotificationManager.Kind.CHAIN, lines);
 
         // Trigger achievement if applicable
         plugin.getAchievementManager().onChainCompleted(player, chain.getId());
@@ -195,52 +230,52 @@ public class BrewingChainManager {
     /**
      * Give a chain reward to a player
      */
-    private void giveChainReward(Player player, BrewingChain.ChainReward reward) {
+    private void giveChainReward(Player player, BrewingChain chain, BrewingChain.ChainReward reward) {
         if (reward.getExperience() > 0) {
             player.giveExp(reward.getExperience());
         }
 
-        for (String command : reward.getCommands()) {
-            String processedCommand = command.replace("{player}", player.getName());
-            plugin.getServer().dispatchCommand(plugin.getServer().getConsoleSender(), processedCommand);
-        }
+        CommandContext context = CommandContext.of(player)
+                .set(CommandTemplate.Placeholder.CHAIN_ID, chain.getId())
+                .set(CommandTemplate.Placeholder.CHAIN_NAME, chain.getName() != null ? chain.getName() : chain.getId());
+        plugin.getCommandManager().dispatch(reward.getCommandTemplates(), context,
+                CommandManager.Trigger.CHAIN_REWARD);
 
         if (reward.getMessage() != null && !reward.getMessage().isEmpty()) {
-            player.sendMessage(TextUtils.parseAuto(reward.getMessage()));
+            plugin.getNotificationManager().notify(player, NotificationManager.Kind.CHAIN,
+                    List.of(TextUtils.parseAuto(reward.getMessage())));
         }
     }
 
     /**
      * Notify player of chain progress
      */
-    private void notifyChainProgress(Player player, BrewingChain chain, String completedRecipe) {
-        List<String> completed = getCompletedChainRecipes(player, chain.getId());
-        double progress = chain.getProgress(completed);
-        int completedSteps = completed.size();
+    private void notifyChainProgress(Player player, BrewingChain chain, ChainProgress chainProgress) {
+        double progress = chain.getProgress(chainProgress);
+        int completedSteps = chainProgress.getCount();
         int totalSteps = chain.getSteps().size();
 
-        player.sendMessage(TextUtils.miniMessage(
-            "<gradient:green:lime>⛓ Chain Progress:</gradient> "
-        ).append(TextUtils.parseAuto(chain.getName())));
-        player.sendMessage(TextUtils.miniMessage(
-            "<gray>Completed: <white>" + completedSteps + "<gray>/" + totalSteps + 
-            " <dark_gray>(" + String.format("%.1f%%", progress * 100) + ")"
-        ));
+        List<Component> lines = new ArrayList<>(4);
+        lines.add(CHAIN_PROGRESS_HEADER.append(TextUtils.parseAuto(chain.getName())));
+        lines.add(Component.text("Completed: ", NamedTextColor.GRAY)
+            .append(Component.text(String.valueOf(completedSteps), NamedTextColor.WHITE))
+            .append(Component.text("/" + totalSteps + " ", NamedTextColor.GRAY))
+            .append(Component.text(String.format("(%.1f%%)", progress * 100), NamedTextColor.DARK_GRAY)));
 
         // Show next step if not completed
         if (progress < 1.0) {
-            BrewingChain.ChainStep nextStep = chain.getNextStep(completed);
+            BrewingChain.ChainStep nextStep = chain.getNextStep(chainProgress);
             if (nextStep != null) {
                 String recipeName = getRecipeName(nextStep.getRecipeId());
-                player.sendMessage(
-                    Component.text("Next: ", NamedTextColor.AQUA)
-                        .append(Component.text(recipeName, NamedTextColor.WHITE))
-                );
+                lines.add(Component.text("Next: ", NamedTextColor.AQUA)
+                        .append(Component.text(recipeName, NamedTextColor.WHITE)));
                 if (nextStep.getDescription() != null) {
-                    player.sendMessage(Component.text("  " + nextStep.getDescription(), NamedTextColor.GRAY));
+                    lines.add(Component.text("  " + nextStep.getDescription(), NamedTextColor.GRAY));
                 }
             }
         }
+
+        plugin.getNotificationManager().notify(player, NotificationManager.Kind.CHAIN, lines);
     }
 
     /**
@@ -263,8 +298,7 @@ public class BrewingChainManager {
             return 0.0;
         }
 
-        List<String> completed = getCompletedChainRecipes(player, chainId);
-        return chain.getProgress(completed);
+        return chain.getProgress(getProgress(player, chain));
     }
 
     /**
@@ -287,19 +321,65 @@ public class BrewingChainManager {
      * Get chains available to a player (has discovered at least one recipe in the chain)
      */
     public List<BrewingChain> getAvailableChains(Player player) {
-        List<BrewingChain> available = new ArrayList<>();
-        Set<String> discoveredRecipes = plugin.getPlayerDataManager().getDiscoveredRecipes(player);
-
-        for (BrewingChain chain : chains.values()) {
-            // Check if player has discovered any recipe in this chain
-            boolean hasAnyRecipe = chain.getSteps().stream()
-                    .anyMatch(step -> discoveredRecipes.contains(step.getRecipeId()));
-            
-            if (hasAnyRecipe) {
-                available.add(chain);
+        BitSet available = getAvailableChainIndices(player.getUniqueId());
+        List<BrewingChain> result = new ArrayList<>(available.cardinality());
+        for (int i = available.nextSetBit(0); i >= 0; i = available.nextSetBit(i + 1)) {
+            result.add(chainList.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * Get the number of chains available to a player
+     */
+    public int getAvailableChainCount(UUID playerId) {
+        return getAvailableChainIndices(playerId).cardinality();
+    }
+
+    /**
+     * Get the cached available chain indices of a player, built from their own and their
+     * discovery group's recipes on first use
+     */
+    private BitSet getAvailableChainIndices(UUID playerId) {
+        return availableChains.computeIfAbsent(playerId, id -> {
+            BitSet available = new BitSet(chainList.size());
+            PlayerData data = plugin.getPlayerDataManager().getPlayerData(id);
+            for (String recipeId : data.getDiscoveredRecipes()) {
+                markAvailable(available, recipeId);
+            }
+            if (data.getDiscoveryGroup() != null) {
+                for (String recipeId : data.getDiscoveryGroup().getRecipeIds()) {
+                    markAvailable(available, recipeId);
+                }
             }
+            return available;
+        });
+    }
+
+    /**
+     * Handle a recipe newly available to a player, discovered by them or their group:
+     * chains containing it become available
+     */
+    public void onRecipeDiscovered(UUID playerId, String recipeId) {
+        BitSet available = availableChains.get(playerId);
+        if (available != null) {
+            markAvailable(available, recipeId);
         }
+    }
 
-        return available;
+    private void markAvailable(BitSet available, String recipeId) {
+        int[] chainIndices = recipeToChains.get(recipeId);
+        if (chainIndices != null) {
+            for (int chainIndex : chainIndices) {
+                available.set(chainIndex);
+            }
+        }
+    }
+
+    /**
+     * Drop the cached available chains of a player, e.g. when they log out or change group
+     */
+    public void unloadPlayer(UUID playerId) {
+        availableChains.remove(playerId);
     }
 }
@@ -0,0 +1,275 @@
+package net.pwing.brewmasters.managers;
+
+import net.pwing.brewmasters.BrewMasters;
+import net.pwing.brewmasters.utils.CommandContext;
+import net.pwing.brewmasters.utils.CommandTemplate;
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs compiled drink, expire, chain and achievement commands
+ *
+ * Commands are queued by priority and drained once per tick within a
+ * configurable time budget, so a burst of triggers (an event potion drunk by
+ * everyone, a mass expiry) is spread over several ticks instead of running in
+ * one. Higher priorities are always drained first.
+ */
+public class CommandManager {
+
+    private static final double DEFAULT_TICK_BUDGET_MS = 2.0;
+
+    private final BrewMasters plugin;
+    private final Map<Trigger, Priority> triggerPriorities = new EnumMap<>(Trigger.class);
+    @SuppressWarnings("unchecked")
+    private final ArrayDeque<QueuedCommand>[] queues = new ArrayDeque[Priority.values().length];
+    private long tickBudgetNanos;
+    private int taskId = -1;
+
+    // Metrics, only touched on the main thread
+    private int peakQueueDepth;
+    private long executedCount;
+    private long backloggedTicks;
+    private long totalLatencyNanos;
+    private long maxLatencyNanos;
+
+    public CommandManager(BrewMasters plugin) {
+        this.plugin = plugin;
+        for (Priority priority : Priority.values()) {
+            queues[priority.ordinal()] = new ArrayDeque<>();
+        }
+        loadSettings();
+        startDrainTask();
+    }
+
+    /**
+     * Load the tick budget and trigger priorities from config
+     */
+    public void loadSettings() {
+        ConfigurationSection section = plugin.getConfig().getConfigurationSection("commands");
+
+        double budgetMillis = section != null ? section.getDouble("tick-budget-ms", DEFAULT_TICK_BUDGET_MS)
+                : DEFAULT_TICK_BUDGET_MS;
+        tickBudgetNanos = (long) (Math.max(0.1, budgetMillis) * 1_000_000L);
+
+        triggerPriorities.clear();
+        for (Trigger trigger : Trigger.values()) {
+            Priority priority = trigger.getDefaultPriority();
+            String configured = section != null ? section.getString("priorities." + trigger.getKey()) : null;
+            if (configured != null) {
+                try {
+                    priority = Priority.valueOf(configured.toUpperCase());
+                } catch (IllegalArgumentException e) {
+                    plugin.getLogger().warning("Invalid command priority '" + configured + "' for "
+                            + trigger.getKey() + ", using " + priority);
+                }
+            }
+            triggerPriorities.put(trigger, priority);
+        }
+    }
+
+    /**
+     * Queue the commands of one trigger
+     */
+    public void dispatch(List<CommandTemplate> commands, CommandContext context, Trigger trigger) {
+        if (commands == null || commands.isEmpty()) {
+            return;
+        }
+
+        if (!Bukkit.isPrimaryThread()) {
+            Bukkit.getScheduler().runTask(plugin, () -> dispatch(commands, context, trigger));
+            return;
+        }
+
+        ArrayDeque<QueuedCommand> queue = queues[triggerPriorities.get(trigger).ordinal()];
+        long now = System.nanoTime();
+        for (CommandTemplate command : commands) {
+            queue.add(new QueuedCommand(command, context, now));
+        }
+
+        peakQueueDepth = Math.max(peakQueueDepth, getQueueDepth());
+    }
+
+    private void startDrainTask() {
+        taskId = Bukkit.getScheduler().scheduleSyncRepeatingTask(plugin, this::drain, 1L, 1L);
+    }
+
+    /**
+     * Run queued commands, highest priority first, until the tick budget is used
+     */
+    private void drain() {
+        long start = System.nanoTime();
+        long deadline = start + tickBudgetNanos;
+        boolean ranAny = false;
+
+        for (ArrayDeque<QueuedCommand> queue : queues) {
+            while (!queue.isEmpty()) {
+                // Always make progress, even if a single command exceeds the budget
+                if (ranAny && System.nanoTime() >= deadline) {
+                    backloggedTicks++;
+                    return;
+                }
+                run(queue.poll());
+                ranAny = true;
+            }
+        }
+    }
+
+    private void run(QueuedCommand queued) {
+        long latency = System.nanoTime() - queued.enqueuedAt;
+        totalLatencyNanos += latency;
+        maxLatencyNanos = Math.max(maxLatencyNanos, latency);
+        executedCount++;
+
+        try {
+            execute(queued.command, queued.context);
+        } catch (Exception e) {
+            plugin.getLogger().warning("Error executing command '" + queued.command.render(queued.context)
+                    + "': " + e.getMessage());
+        }
+    }
+
+    /**
+     * Run a single command with the sender it was configured for
+     */
+    private void execute(CommandTemplate command, CommandContext context) {
+        String rendered = command.render(context);
+
+        if (command.getSender() == CommandTemplate.Sender.PLAYER) {
+            Player player = context.getPlayer();
+            if (player.isOnline()) {
+                player.performCommand(rendered);
+            }
+        } else {
+            Bukkit.dispatchCommand(Bukkit.getConsoleSender(), rendered);
+        }
+    }
+
+    /**
+     * Stop the drain task and run everything still queued
+     */
+    public void shutdown() {
+        if (taskId != -1) {
+            Bukkit.getScheduler().cancelTask(taskId);
+            taskId = -1;
+        }
+
+        for (ArrayDeque<QueuedCommand> queue : queues) {
+            while (!queue.isEmpty()) {
+                run(queue.poll());
+            }
+        }
+    }
+
+    /**
+     * Get the number of queued commands of one priority
+     */
+    public int getQueueDepth(Priority priority) {
+        return queues[priority.ordinal()].size();
+    }
+
+    /**
+     * Get the number of queued commands across all priorities
+     */
+    public int getQueueDepth() {
+        int depth = 0;
+        for (ArrayDeque<QueuedCommand> queue : queues) {
+            depth += queue.size();
+        }
+        return depth;
+    }
+
+    public int getPeakQueueDepth() {
+        return peakQueueDepth;
+    }
+
+    public long getExecutedCount() {
+        return executedCount;
+    }
+
+    /**
+     * Get the number of ticks that ran out of budget with commands still queued
+     */
+    public long getBackloggedTicks() {
+        return backloggedTicks;
+    }
+
+    /**
+     * Get the average time between queueing and running a command, in milliseconds
+     */
+    public double getAverageLatencyMillis() {
+        return executedCount == 0 ? 0 : totalLatencyNanos / (double) executedCount / 1_000_000.0;
+    }
+
+    public double getMaxLatencyMillis() {
+        return maxLatencyNanos / 1_000_000.0;
+    }
+
+    public double getTickBudgetMillis() {
+        return tickBudgetNanos / 1_000_000.0;
+    }
+
+    /**
+     * Reset the collected metrics
+     */
+    public void resetMetrics() {
+        peakQueueDepth = getQueueDepth();
+        executedCount = 0;
+        backloggedTicks = 0;
+        totalLatencyNanos = 0;
+        maxLatencyNanos = 0;
+    }
+
+    /**
+     * Queue priorities, drained in declaration order
+     */
+    public enum Priority {
+        HIGH,
+        NORMAL,
+        LOW
+    }
+
+    /**
+     * Sources of commands, each mapped to a configurable priority
+     */
+    public enum Trigger {
+        ACHIEVEMENT_REWARD("achievement-reward", Priority.HIGH),
+        CHAIN_REWARD("chain-reward", Priority.HIGH),
+        DRINK("drink", Priority.NORMAL),
+        EXPIRE("expire", Priority.NORMAL),
+        PERIODIC("periodic", Priority.LOW);
+
+        private final String key;
+        private final Priority defaultPriority;
+
+        Trigger(String key, Priority defaultPriority) {
+            this.key = key;
+            this.defaultPriority = defaultPriority;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public Priority getDefaultPriority() {
+            return defaultPriority;
+        }
+    }
+
+    private static final class QueuedCommand {
+        private final CommandTemplate command;
+        private final CommandContext context;
+        private final long enqueuedAt;
+
+        private QueuedCommand(CommandTemplate command, CommandContext context, long enqueuedAt) {
+            this.command = command;
+            this.context = context;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package net.pwing.brewmasters.managers;
+
+import net.pwing.brewmasters.BrewMasters;
+import net.pwing.brewmasters.models.BrewingRecipe;
+import net.pwing.brewmasters.models.DiscoveryGroup;
+import net.pwing.brewmasters.models.PlayerData;
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Manages shared discovery groups (parties, guilds) and their membership
+ *
+ * Each member's {@link PlayerData} references their group, so checking a
+ * shared recipe is one lookup in the group's copy-on-write bits. Membership
+ * and group recipes are saved in groups.yml. Members' own discoveries are
+ * added to the group when their data is loaded and whenever they discover
+ * a recipe.
+ */
+public class DiscoveryGroupManager {
+
+    private final BrewMasters plugin;
+    private final File dataFile;
+    private final Map<String, DiscoveryGroup> groups = new ConcurrentHashMap<>();
+    private final Map<UUID, DiscoveryGroup> groupsByMember = new ConcurrentHashMap<>();
+    private final AtomicBoolean savePending = new AtomicBoolean();
+
+    public DiscoveryGroupManager(BrewMasters plugin) {
+        this.plugin = plugin;
+        this.dataFile = new File(plugin.getDataFolder(), "groups.yml");
+        load();
+    }
+
+    /**
+     * Rebuild the recipe bits of every group, call after (re)loading recipes
+     */
+    public void reindex() {
+        for (DiscoveryGroup group : groups.values()) {
+            group.reindex(recipeId -> {
+                BrewingRecipe recipe = plugin.getRecipeManager().getRecipe(recipeId);
+                return recipe != null ? recipe.getIndex() : -1;
+            });
+        }
+    }
+
+    /**
+     * Create a group
+     * @return The group, or null if a group with that id already exists
+     */
+    public DiscoveryGroup createGroup(String groupId) {
+        DiscoveryGroup group = new DiscoveryGroup(groupId);
+        if (groups.putIfAbsent(groupId, group) != null) {
+            return null;
+        }
+        saveAsync();
+        return group;
+    }
+
+    /**
+     * Delete a group, its members keep their own discoveries
+     * @return true if the group existed
+     */
+    public boolean deleteGroup(String groupId) {
+        DiscoveryGroup group = groups.remove(groupId);
+        if (group == null) {
+            return false;
+        }
+
+        for (UUID memberId : group.getMembers()) {
+            groupsByMember.remove(memberId, group);
+            attach(memberId, null);
+        }
+        saveAsync();
+        return true;
+    }
+
+    /**
+     * Add a player to a group, leaving their previous group
+     * @return true if the group exists
+     */
+    public boolean addMember(String groupId, UUID playerId) {
+        DiscoveryGroup group = groups.get(groupId);
+        if (group == null) {
+            return false;
+        }
+
+        DiscoveryGroup previous = groupsByMember.put(playerId, group);
+        if (previous != null && previous != group) {
+            previous.removeMember(playerId);
+        }
+        group.addMember(playerId);
+        attach(playerId, group);
+        saveAsync();
+        return true;
+    }
+
+    /**
+     * Remove a player from their group
+     * @return The group they left, or null if they were not in one
+     */
+    public DiscoveryGroup removeMember(UUID playerId) {
+        DiscoveryGroup group = groupsByMember.remove(playerId);
+        if (group == null) {
+            return null;
+        }
+
+        group.removeMember(playerId);
+        attach(playerId, null);
+        saveAsync();
+        return group;
+    }
+
+    /**
+     * Link loaded player data to its group and share the player's discoveries with it
+     */
+    public void attach(PlayerData data) {
+        DiscoveryGroup group = groupsByMember.get(data.getPlayerId());
+        data.setDiscoveryGroup(group);
+        if (group == null) {
+            return;
+        }
+
+        boolean changed = false;
+        for (String recipeId : data.getDiscoveredRecipes()) {
+            changed |= share(group, recipeId);
+        }
+        if (changed) {
+            saveAsync();
+        }
+    }
+
+    private void attach(UUID playerId, DiscoveryGroup group) {
+        // Shared recipes changed, available chains are rebuilt on next lookup
+        plugin.getBrewingChainManager().unloadPlayer(playerId);
+
+        // Only players with loaded data, the rest attach when their data loads
+        if (plugin.getPlayerDataManager().isLoaded(playerId)) {
+            PlayerData data = plugin.getPlayerDataManager().getPlayerData(playerId);
+            if (group != null) {
+                attach(data);
+            } else {
+                data.setDiscoveryGroup(null);
+            }
+        }
+    }
+
+    /**
+     * Share a recipe a player discovered with their group
+     */
+    public void onRecipeDiscovered(PlayerData data, String recipeId) {
+        DiscoveryGroup group = data.getDiscoveryGroup();
+        if (group != null && share(group, recipeId)) {
+            saveAsync();
+        }
+    }
+
+    private boolean share(DiscoveryGroup group, String recipeId) {
+        BrewingRecipe recipe = plugin.getRecipeManager().getRecipe(recipeId);
+        if (!group.addRecipe(recipeId, recipe != null ? recipe.getIndex() : -1)) {
+            return false;
+        }
+
+        for (UUID memberId : group.getMembers()) {
+            plugin.getBrewingChainManager().onRecipeDiscovered(memberId, recipeId);
+        }
+        return true;
+    }
+
+    /**
+     * Get a group by id
+     */
+    public DiscoveryGroup getGroup(String groupId) {
+        return groups.get(groupId);
+    }
+
+    /**
+     * Get the group of a player
+     * @return The group, or null if the player is not in one
+     */
+    public DiscoveryGroup getGroupOf(UUID playerId) {
+        return groupsByMember.get(playerId);
+    }
+
+    /**
+     * Get all groups
+     */
+    public Collection<DiscoveryGroup> getGroups() {
+        return groups.values();
+    }
+
+    private void load() {
+        if (!dataFile.exists()) {
+            return;
+        }
+
+        FileConfiguration config = YamlConfiguration.loadConfiguration(dataFile);
+        ConfigurationSection groupsSection = config.getConfigurationSection("groups");
+        if (groupsSection == null) {
+            return;
+        }
+
+        for (String groupId : groupsSection.getKeys(false)) {
+            DiscoveryGroup group = new DiscoveryGroup(groupId);
+            for (String recipeId : groupsSection.getStringList(groupId + ".recipes")) {
+                group.addRecipe(recipeId, -1); // Indexed once recipes are loaded
+            }
+            for (String member : groupsSection.getStringList(groupId + ".members")) {
+                try {
+                    UUID memberId = UUID.fromString(member);
+                    group.addMember(memberId);
+                    groupsByMember.put(memberId, group);
+                } catch (IllegalArgumentException e) {
+                    plugin.getLogger().warning("Skipping invalid member of group " + groupId + ": " + member);
+                }
+            }
+            groups.put(groupId, group);
+        }
+    }
+
+    /**
+     * Save all groups now, used on shutdown
+     */
+    public void save() {
+        write();
+    }
+
+    /**
+     * Save soon, changes made before the pending save runs share one write
+     */
+    private void saveAsync() {
+        if (savePending.compareAndSet(false, true)) {
+            Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+                savePending.set(false);
+                write();
+            });
+        }
+    }
+
+    private FileConfiguration toConfig() {
+        FileConfiguration config = new YamlConfiguration();
+        for (DiscoveryGroup group : groups.values()) {
+            List<String> members = new ArrayList<>();
+            for (UUID memberId : group.getMembers()) {
+                members.add(memberId.toString());
+            }
+            config.set("groups." + group.getId() + ".members", members);
+            config.set("groups." + group.getId() + ".recipes", new ArrayList<>(group.getRecipeIds()));
+        }
+        return config;
+    }
+
+    private void write() {
+        synchronized (dataFile) {
+            // Snapshot under the lock, so whichever write runs last saves the latest groups
+            try {
+                toConfig().save(dataFile);
+            } catch (IOException e) {
+                plugin.getLogger().severe("Failed to save discovery groups: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -2,11 +2,17 @@ package net.pwing.brewmasters.managers;
 
 import net.pwing.brewmasters.BrewMasters;
 import net.pwing.brewmasters.models.BrewingRecipe;
+import net.pwing.brewmasters.models.DiscoveryGroup;
 import net.pwing.brewmasters.models.DiscoveryMethod;
+import net.pwing.brewmasters.models.PlayerData;
 import net.pwing.brewmasters.utils.TextUtils;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
-import org.bukkit.Sound;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Biome;
+import org.bukkit.entity.EntityType;
 import org.bukkit.entity.Player;
 import org.bukkit.configuration.ConfigurationSection;
 
@@ -14,11 +20,35 @@ import java.util.*;
 
 /**
  * Manages recipe discovery mechanics and notifications
+ *
+ * Discovery methods are indexed at load by what triggers them (mob type,
+ * material, brewed recipe, biome, level threshold), so a game event that no
+ * method cares about costs a single map lookup. Progress towards a discovery
+ * is kept as counters in {@link PlayerData} until the recipe is discovered.
+ *
+ * Biomes are only looked up when a player moves into another chunk section
+ * (16x16x16 blocks), from a per-world cache of section biomes, and only a
+ * biome the player has not entered yet this session reaches the targets.
  */
 public class DiscoveryManager {
 
+    private static final Component DISCOVERY_HEADER = TextUtils.miniMessage(
+            "<gradient:gold:yellow>✨ Recipe Discovered! ✨</gradient>");
+    private static final Component DISCOVERY_FOOTER = TextUtils.miniMessage(
+            "<gray>Use <green>/brewmasters recipes</green> to view your recipes");
+    private static final int MAX_CACHED_SECTIONS = 4096; // Per world
+
     private final BrewMasters plugin;
     private final Map<String, DiscoveryMethod> discoveryMethods;
+    private final Map<EntityType, List<DiscoveryTarget>> killTargets = new EnumMap<>(EntityType.class);
+    private final Map<Material, List<DiscoveryTarget>> craftTargets = new EnumMap<>(Material.class);
+    private final Map<Material, List<DiscoveryTarget>> obtainTargets = new EnumMap<>(Material.class);
+    private final Map<String, List<DiscoveryTarget>> brewTargets = new HashMap<>(); // brewed recipe -> targets
+    private final Map<Biome, List<DiscoveryTarget>> biomeTargets = new EnumMap<>(Biome.class);
+    private final NavigableMap<Integer, List<String>> levelTargets = new TreeMap<>(); // level -> recipe IDs
+    private final List<String> joinTargets = new ArrayList<>(); // AUTOMATIC and PERMISSION, checked on join
+    private final Map<UUID, BiomeVisits> biomeVisits = new HashMap<>();
+    private final Map<UUID, Map<Long, Biome>> sectionBiomes = new HashMap<>(); // worldId -> section -> biome
     private boolean discoveryEnabled;
     private boolean showDiscoveryNotifications;
 
@@ -52,8 +82,8 @@ public class DiscoveryManager {
     public void loadDiscoveryMethods() {
         // Load discovery methods for each recipe
         ConfigurationSection methodsSection = plugin.getConfig().getConfigurationSection("discovery.methods");
+        discoveryMethods.clear();
         if (methodsSection != null) {
-            discoveryMethods.clear();
             for (String recipeId : methodsSection.getKeys(false)) {
                 ConfigurationSection recipeSection = methodsSection.getConfigurationSection(recipeId);
                 if (recipeSection != null) {
@@ -64,6 +94,93 @@ public class DiscoveryManager {
                 }
             }
         }
+
+        indexDiscoveryMethods();
+    }
+
+    /**
+     * Build the event indexes from the loaded discovery methods
+     */
+    private void indexDiscoveryMethods() {
+        killTargets.clear();
+        craftTargets.clear();
+        obtainTargets.clear();
+        brewTargets.clear();
+        biomeTargets.clear();
+        levelTargets.clear();
+        joinTargets.clear();
+        biomeVisits.clear(); // Biomes already entered may matter to new methods
+
+        for (Map.Entry<String, DiscoveryMethod> entry : discoveryMethods.entrySet()) {
+            String recipeId = entry.getKey();
+            DiscoveryMethod method = entry.getValue();
+
+            switch (method.getType()) {
+                case AUTOMATIC:
+                case PERMISSION:
+                    joinTargets.add(recipeId);
+                    break;
+
+                case LEVEL_REACH:
+                    levelTargets.computeIfAbsent(method.getAmount(), k -> new ArrayList<>()).add(recipeId);
+                    break;
+
+                case KILL_MOB:
+                    try {
+                        EntityType entityType = EntityType.valueOf(String.valueOf(method.getMobType()).toUpperCase());
+                        addTarget(killTargets, entityType, new DiscoveryTarget(recipeId, method, 0, method.getAmount()));
+                    } catch (IllegalArgumentException e) {
+                        plugin.getLogger().warning("Invalid mob type for discovery of " + recipeId + ": "
+                                + method.getMobType());
+                    }
+                    break;
+
+                case ITEM_CRAFT:
+                case ITEM_OBTAIN:
+                    Material material = method.getMaterial() != null ? Material.matchMaterial(method.getMaterial()) : null;
+                    if (material == null) {
+                        plugin.getLogger().warning("Invalid material for discovery of " + recipeId + ": "
+                                + method.getMaterial());
+                        break;
+                    }
+                    addTarget(method.getType() == DiscoveryMethod.Type.ITEM_CRAFT ? craftTargets : obtainTargets,
+                            material, new DiscoveryTarget(recipeId, method, 0, method.getAmount()));
+                    break;
+
+                case RECIPE_BREW:
+                    // One counter per required recipe, each must reach the amount
+                    List<String> requiredRecipes = method.getRequiredRecipes();
+                    for (int i = 0; i < requiredRecipes.size(); i++) {
+                        addTarget(brewTargets, requiredRecipes.get(i),
+                                new DiscoveryTarget(recipeId, method, i, method.getAmount()));
+                    }
+                    break;
+
+                case BIOME_VISIT:
+                    // One bit per biome, all of them must be visited
+                    List<Biome> biomes = new ArrayList<>();
+                    for (String biomeName : method.getBiomes()) {
+                        try {
+                            biomes.add(Biome.valueOf(biomeName.toUpperCase()));
+                        } catch (IllegalArgumentException e) {
+                            plugin.getLogger().warning("Invalid biome for discovery of " + recipeId + ": " + biomeName);
+                        }
+                    }
+                    if (biomes.size() > Integer.SIZE) {
+                        plugin.getLogger().warning("Discovery of " + recipeId + " lists more than "
+                                + Integer.SIZE + " biomes, extra biomes are ignored");
+                        biomes = biomes.subList(0, Integer.SIZE);
+                    }
+                    for (int i = 0; i < biomes.size(); i++) {
+                        addTarget(biomeTargets, biomes.get(i), new DiscoveryTarget(recipeId, method, i, biomes.size()));
+                    }
+                    break;
+            }
+        }
+    }
+
+    private static <K> void addTarget(Map<K, List<DiscoveryTarget>> index, K key, DiscoveryTarget target) {
+        index.computeIfAbsent(key, k -> new ArrayList<>()).add(target);
     }
 
     /**
@@ -141,7 +258,18 @@ public class DiscoveryManager {
             return true; // Discovery disabled, all recipes available
         }
 
-        return plugin.getPlayerDataManager().hasDiscoveredRecipe(player, recipeId);
+        PlayerData data = plugin.getPlayerDataManager().getPlayerData(player);
+        if (data.hasDiscoveredRecipe(recipeId)) {
+            return true;
+        }
+
+        // Recipes discovered by the player's group
+        DiscoveryGroup group = data.getDiscoveryGroup();
+        if (group == null) {
+            return false;
+        }
+        BrewingRecipe recipe = plugin.getRecipeManager().getRecipe(recipeId);
+        return recipe != null && group.hasRecipe(recipe.getIndex());
     }
 
     /**
@@ -188,6 +316,11 @@ public class DiscoveryManager {
             sendDiscoveryNotification(player, recipeId);
         }
 
+        BrewingRecipe recipe = plugin.getRecipeManager().getRecipe(recipeId);
+        if (recipe != null) {
+            plugin.getServerFirstManager().claimRecipe(player, recipe);
+        }
+
         return true;
     }
 
@@ -195,24 +328,253 @@ public class DiscoveryManager {
      * Check if discovery conditions are met
      */
     private boolean checkDiscoveryConditions(Player player, DiscoveryMethod method) {
-        // This is a simplified check - in a full implementation, you'd track
-        // player actions and check against the method requirements
         switch (method.getType()) {
             case AUTOMATIC:
                 return true;
 
             case PERMISSION:
-                return player.hasPermission(method.getPermission());
+                return method.getPermission() != null && player.hasPermission(method.getPermission());
 
             case LEVEL_REACH:
                 return player.getLevel() >= method.getAmount();
 
-            // Other types would require tracking player actions
             default:
+                // Tracked types are discovered as their events happen
                 return false;
         }
     }
 
+    // ===== Event-driven discovery =====
+
+    /**
+     * Handle a player joining: check recipes discovered by permission, automatically or by level
+     */
+    public void onPlayerJoin(Player player) {
+        if (!discoveryEnabled) {
+            return;
+        }
+
+        for (String recipeId : joinTargets) {
+            DiscoveryMethod method = discoveryMethods.get(recipeId);
+            if (!plugin.getPlayerDataManager().hasDiscoveredRecipe(player, recipeId)
+                    && checkDiscoveryConditions(player, method)) {
+                discoverRecipe(player, recipeId);
+            }
+        }
+
+        discoverLevelTargets(player, levelTargets.headMap(player.getLevel(), true));
+    }
+
+    /**
+     * Handle a level change: only thresholds between the old and new level are checked
+     */
+    public void onLevelChanged(Player player, int oldLevel, int newLevel) {
+        if (!discoveryEnabled || newLevel <= oldLevel) {
+            return;
+        }
+        discoverLevelTargets(player, levelTargets.subMap(oldLevel, false, newLevel, true));
+    }
+
+    private void discoverLevelTargets(Player player, Map<Integer, List<String>> reached) {
+        for (List<String> recipeIds : reached.values()) {
+            for (String recipeId : recipeIds) {
+                discoverRecipe(player, recipeId);
+            }
+        }
+    }
+
+    /**
+     * Handle a player killing a mob
+     */
+    public void onMobKilled(Player player, EntityType entityType) {
+        count(player, killTargets.get(entityType), 1);
+    }
+
+    /**
+     * Handle a player crafting items
+     */
+    public void onItemCrafted(Player player, Material material, int amount) {
+        count(player, craftTargets.get(material), amount);
+    }
+
+    /**
+     * Handle a player obtaining items
+     */
+    public void onItemObtained(Player player, Material material, int amount) {
+        count(player, obtainTargets.get(material), amount);
+    }
+
+    /**
+     * Handle a player brewing a recipe
+     */
+    public void onRecipeBrewed(Player player, String recipeId) {
+        List<DiscoveryTarget> targets = brewTargets.get(recipeId);
+        if (targets == null || !discoveryEnabled) {
+            return;
+        }
+
+        PlayerData data = plugin.getPlayerDataManager().getPlayerData(player);
+        for (DiscoveryTarget target : targets) {
+            if (data.hasDiscoveredRecipe(target.recipeId)) {
+                continue;
+            }
+
+            int[] progress = data.getDiscoveryProgress(target.recipeId, target.method.getRequiredRecipes().size());
+            progress[target.slot]++;
+
+            boolean complete = true;
+            for (int count : progress) {
+                complete &= count >= target.required;
+            }
+            if (complete) {
+                complete(player, data, target.recipeId);
+            }
+        }
+    }
+
+    /**
+     * Handle a player moving, checking the biome only when they enter another chunk section
+     */
+    public void onPlayerMoved(Player player, Location to) {
+        if (!discoveryEnabled || biomeTargets.isEmpty() || to == null || to.getWorld() == null) {
+            return;
+        }
+
+        World world = to.getWorld();
+        long section = sectionKey(to.getBlockX() >> 4, to.getBlockY() >> 4, to.getBlockZ() >> 4);
+        BiomeVisits visits = biomeVisits.computeIfAbsent(player.getUniqueId(), id -> new BiomeVisits());
+        if (section == visits.section && world.getUID().equals(visits.worldId)) {
+            return;
+        }
+        visits.section = section;
+        visits.worldId = world.getUID();
+
+        Biome biome = getSectionBiome(world, section, to);
+        if (biome == visits.biome) {
+            return;
+        }
+        visits.biome = biome;
+
+        if (visits.visited.add(biome)) {
+            onBiomeEntered(player, biome);
+        }
+    }
+
+    /**
+     * Get the biome of a chunk section, sampled at its center and cached
+     */
+    private Biome getSectionBiome(World world, long section, Location location) {
+        Map<Long, Biome> cache = sectionBiomes.computeIfAbsent(world.getUID(), id -> new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Biome> eldest) {
+                return size() > MAX_CACHED_SECTIONS;
+            }
+        });
+
+        Biome biome = cache.get(section);
+        if (biome == null) {
+            biome = world.getBiome((location.getBlockX() & ~15) + 8, (location.getBlockY() & ~15) + 8,
+                    (location.getBlockZ() & ~15) + 8);
+            cache.put(section, biome);
+        }
+        return biome;
+    }
+
+    private static long sectionKey(int sectionX, int sectionY, int sectionZ) {
+        return ((long) sectionX & 0x3FFFFF) << 42 | ((long) sectionZ & 0x3FFFFF) << 20 | (sectionY & 0xFFFFF);
+    }
+
+    /**
+     * Drop biome tracking of a player that left
+     */
+    public void unloadPlayer(UUID playerId) {
+        biomeVisits.remove(playerId);
+    }
+
+    /**
+     * Drop the cached section biomes of an unloaded world
+     */
+    public void unloadWorld(UUID worldId) {
+        sectionBiomes.remove(worldId);
+    }
+
+    /**
+     * Handle a player entering a biome
+     */
+    public void onBiomeEntered(Player player, Biome biome) {
+        List<DiscoveryTarget> targets = biomeTargets.get(biome);
+        if (targets == null || !discoveryEnabled) {
+            return;
+        }
+
+        PlayerData data = plugin.getPlayerDataManager().getPlayerData(player);
+        for (DiscoveryTarget target : targets) {
+            if (data.hasDiscoveredRecipe(target.recipeId)) {
+                continue;
+            }
+
+            int[] progress = data.getDiscoveryProgress(target.recipeId, 1);
+            progress[0] |= 1 << target.slot;
+            if (Integer.bitCount(progress[0]) >= target.required) {
+                complete(player, data, target.recipeId);
+            }
+        }
+    }
+
+    /**
+     * Add to single-counter targets (kills, crafts, items obtained)
+     */
+    private void count(Player player, List<DiscoveryTarget> targets, int amount) {
+        if (targets == null || !discoveryEnabled) {
+            return;
+        }
+
+        PlayerData data = plugin.getPlayerDataManager().getPlayerData(player);
+        for (DiscoveryTarget target : targets) {
+            if (data.hasDiscoveredRecipe(target.recipeId)) {
+                continue;
+            }
+
+            int[] progress = data.getDiscoveryProgress(target.recipeId, 1);
+            progress[0] += amount;
+            if (progress[0] >= target.required) {
+                complete(player, data, target.recipeId);
+            }
+        }
+    }
+
+    private void complete(Player player, PlayerData data, String recipeId) {
+        data.clearDiscoveryProgress(recipeId);
+        discoverRecipe(player, recipeId);
+    }
+
+    /**
+     * Where a player was last seen and the biomes they entered this session
+     */
+    private static final class BiomeVisits {
+        private final Set<Biome> visited = EnumSet.noneOf(Biome.class);
+        private UUID worldId;
+        private long section;
+        private Biome biome;
+    }
+
+    /**
+     * A discovery method waiting on an event, with the counter slot it advances
+     */
+    private static final class DiscoveryTarget {
+        private final String recipeId;
+        private final DiscoveryMethod method;
+        private final int slot;
+        private final int required;
+
+        private DiscoveryTarget(String recipeId, DiscoveryMethod method, int slot, int required) {
+            this.recipeId = recipeId;
+            this.method = method;
+            this.slot = slot;
+            this.required = required;
+        }
+    }
+
     /**
      * Send discovery notification to player
      */
@@ -225,21 +587,11 @@ public class DiscoveryManager {
         String recipeName = recipe.getResultName() != null ? TextUtils.stripColor(recipe.getResultName())
                 : "Custom Recipe";
 
-        player.sendMessage(Component.empty());
-        player.sendMessage(TextUtils.miniMessage(
-            "<gradient:gold:yellow>✨ Recipe Discovered! ✨</gradient>"
+        plugin.getNotificationManager().notify(player, NotificationManager.Kind.DISCOVERY, List.of(
+            DISCOVERY_HEADER,
+            Component.text("You have discovered: ", NamedTextColor.WHITE).append(TextUtils.rainbow(recipeName)),
+            DISCOVERY_FOOTER
         ));
-        player.sendMessage(
-            Component.text("You have discovered: ", NamedTextColor.WHITE)
-                .append(TextUtils.rainbow(recipeName))
-        );
-        player.sendMessage(TextUtils.miniMessage(
-            "<gray>Use <green>/brewmasters recipes</green> to view your recipes"
-        ));
-        player.sendMessage(Component.empty());
-
-        // Play discovery sound
-        player.playSound(player.getLocation(), Sound.ENTITY_PLAYER_LEVELUP, 1.0f, 1.5f);
     }
 
     /**
@@ -0,0 +1,102 @@
+package net.pwing.brewmasters.managers;
+
+import net.pwing.brewmasters.BrewMasters;
+import net.pwing.brewmasters.models.BrewingRecipe;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks per-recipe drink cooldowns
+ *
+ * Each player that has drunk a recipe with a cooldown gets one long[] indexed
+ * by recipe index, holding the time (millis) the cooldown ends. Entries are
+ * cleared when they are read after expiring, so no sweeper task is needed.
+ */
+public class DrinkCooldownManager {
+
+    private final BrewMasters plugin;
+    private final Map<UUID, long[]> cooldowns = new ConcurrentHashMap<>();
+
+    public DrinkCooldownManager(BrewMasters plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Start the drink cooldown of a recipe for a player
+     */
+    public void startCooldown(UUID playerId, BrewingRecipe recipe) {
+        if (recipe.getDrinkCooldown() <= 0) {
+            return;
+        }
+
+        int index = recipe.getIndex();
+        long[] ends = cooldowns.get(playerId);
+        if (ends == null || ends.length <= index) {
+            // Size for every recipe known so far, grows if recipes are added by a reload
+            int size = Math.max(index + 1, plugin.getRecipeManager().getRecipeIndexCount());
+            ends = ends == null ? new long[size] : Arrays.copyOf(ends, size);
+            cooldowns.put(playerId, ends);
+        }
+        ends[index] = System.currentTimeMillis() + recipe.getDrinkCooldown() * 50L;
+    }
+
+    /**
+     * Get the remaining drink cooldown of a recipe for a player
+     * @return Remaining time in milliseconds, 0 if not on cooldown
+     */
+    public long getRemainingMillis(UUID playerId, BrewingRecipe recipe) {
+        long[] ends = cooldowns.get(playerId);
+        int index = recipe.getIndex();
+        if (ends == null || ends.length <= index || ends[index] == 0) {
+            return 0;
+        }
+
+        long remaining = ends[index] - System.currentTimeMillis();
+        if (remaining > 0) {
+            return remaining;
+        }
+
+        // Expired, clear it and drop the player once nothing is left
+        ends[index] = 0;
+        if (isEmpty(ends)) {
+            cooldowns.remove(playerId, ends);
+        }
+        return 0;
+    }
+
+    /**
+     * Get the remaining drink cooldown of a recipe for a player
+     * @return Remaining time in milliseconds, 0 if not on cooldown or the recipe does not exist
+     */
+    public long getRemainingMillis(UUID playerId, String recipeId) {
+        BrewingRecipe recipe = plugin.getRecipeManager().getRecipe(recipeId);
+        return recipe != null ? getRemainingMillis(playerId, recipe) : 0;
+    }
+
+    /**
+     * Check if a player is on cooldown for a recipe
+     */
+    public boolean isOnCooldown(UUID playerId, BrewingRecipe recipe) {
+        return getRemainingMillis(playerId, recipe) > 0;
+    }
+
+    /**
+     * Format a remaining time as M:SS, rounding up so "0:00" only shows when ready
+     */
+    public static String formatRemaining(long remainingMillis) {
+        long seconds = (remainingMillis + 999) / 1000;
+        return String.format("%d:%02d", seconds / 60, seconds % 60);
+    }
+
+    private static boolean isEmpty(long[] ends) {
+        for (long end : ends) {
+            if (end != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
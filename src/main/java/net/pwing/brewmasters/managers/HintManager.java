@@ -0,0 +1,183 @@
+package net.pwing.brewmasters.managers;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.pwing.brewmasters.BrewMasters;
+import net.pwing.brewmasters.models.BrewingRecipe;
+import org.bukkit.Material;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Gives players a hint towards undiscovered recipes when a brew matches nothing
+ *
+ * A recipe is a neighbor of a (base, ingredient) pair when it uses the same
+ * ingredient on another base potion, or a related ingredient on the same
+ * base. Neighbors are indexed by base and ingredient when recipes load, and
+ * each player gets at most one hint per cooldown, checked before any lookup.
+ * Only recipes with vanilla ingredients are indexed.
+ */
+public class HintManager {
+
+    private final BrewMasters plugin;
+    private final Map<Material, Map<Material, Neighbor[]>> neighbors = new EnumMap<>(Material.class); // base -> ingredient -> neighbors
+    private final Map<UUID, Long> lastHints = new ConcurrentHashMap<>();
+    private boolean hintsEnabled;
+    private long cooldownMillis;
+
+    public HintManager(BrewMasters plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Load hint settings and rebuild the neighbor index, call after (re)loading recipes
+     */
+    public void loadHints() {
+        hintsEnabled = plugin.getConfig().getBoolean("hints.enabled", true);
+        cooldownMillis = plugin.getConfig().getLong("hints.cooldown", 60) * 1000L;
+        neighbors.clear();
+
+        Map<Material, Set<Material>> related = loadRelatedIngredients();
+
+        Set<Material> bases = EnumSet.of(Material.POTION, Material.SPLASH_POTION, Material.LINGERING_POTION);
+        for (BrewingRecipe recipe : plugin.getRecipeManager().getAllRecipes()) {
+            bases.add(recipe.getBasePotion());
+        }
+
+        Map<Material, Map<Material, List<Neighbor>>> index = new EnumMap<>(Material.class);
+        for (BrewingRecipe recipe : plugin.getRecipeManager().getAllRecipes()) {
+            Material ingredient = recipe.getIngredientMaterial();
+            if (ingredient == null) {
+                continue;
+            }
+
+            for (Material base : bases) {
+                if (base != recipe.getBasePotion()) {
+                    addNeighbor(index, base, ingredient, new Neighbor(recipe, ingredient, false));
+                }
+            }
+            for (Material relatedIngredient : related.getOrDefault(ingredient, Collections.emptySet())) {
+                addNeighbor(index, recipe.getBasePotion(), relatedIngredient, new Neighbor(recipe, ingredient, true));
+            }
+        }
+
+        for (Map.Entry<Material, Map<Material, List<Neighbor>>> baseEntry : index.entrySet()) {
+            Map<Material, Neighbor[]> byIngredient = new EnumMap<>(Material.class);
+            for (Map.Entry<Material, List<Neighbor>> entry : baseEntry.getValue().entrySet()) {
+                byIngredient.put(entry.getKey(), entry.getValue().toArray(new Neighbor[0]));
+            }
+            neighbors.put(baseEntry.getKey(), byIngredient);
+        }
+    }
+
+    /**
+     * Read the groups of related ingredients, mapping each ingredient to the others in its groups
+     */
+    private Map<Material, Set<Material>> loadRelatedIngredients() {
+        Map<Material, Set<Material>> related = new EnumMap<>(Material.class);
+        List<?> groups = plugin.getConfig().getList("hints.related-ingredients", Collections.emptyList());
+        for (Object group : groups) {
+            if (!(group instanceof List)) {
+                continue;
+            }
+
+            List<Material> materials = new ArrayList<>();
+            for (Object name : (List<?>) group) {
+                Material material = Material.matchMaterial(String.valueOf(name));
+                if (material != null) {
+                    materials.add(material);
+                } else {
+                    plugin.getLogger().warning("Invalid material in hints.related-ingredients: " + name);
+                }
+            }
+
+            for (Material material : materials) {
+                for (Material other : materials) {
+                    if (other != material) {
+                        related.computeIfAbsent(material, k -> EnumSet.noneOf(Material.class)).add(other);
+                    }
+                }
+            }
+        }
+        return related;
+    }
+
+    private static void addNeighbor(Map<Material, Map<Material, List<Neighbor>>> index, Material base,
+                                    Material ingredient, Neighbor neighbor) {
+        index.computeIfAbsent(base, k -> new EnumMap<>(Material.class))
+                .computeIfAbsent(ingredient, k -> new ArrayList<>())
+                .add(neighbor);
+    }
+
+    /**
+     * Handle a brew that matched no recipe, hinting at a close undiscovered one
+     */
+    public void onBrewUnmatched(Player player, Material base, ItemStack ingredient) {
+        if (!hintsEnabled || player == null) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        Long lastHint = lastHints.get(player.getUniqueId());
+        if (lastHint != null && now - lastHint < cooldownMillis) {
+            return;
+        }
+
+        Map<Material, Neighbor[]> byIngredient = neighbors.get(base);
+        Neighbor[] candidates = byIngredient != null ? byIngredient.get(ingredient.getType()) : null;
+        if (candidates == null) {
+            return;
+        }
+
+        for (Neighbor neighbor : candidates) {
+            if (!plugin.getDiscoveryManager().canAccessRecipe(player, neighbor.recipe.getId())) {
+                lastHints.put(player.getUniqueId(), now);
+                player.sendMessage(neighbor.toHint(ingredient.getType()));
+                return;
+            }
+        }
+    }
+
+    /**
+     * Drop the hint cooldown of a player that left
+     */
+    public void unloadPlayer(UUID playerId) {
+        lastHints.remove(playerId);
+    }
+
+    private static String formatMaterial(Material material) {
+        return material.name().toLowerCase().replace('_', ' ');
+    }
+
+    /**
+     * A recipe close to a (base, ingredient) pair
+     */
+    private static final class Neighbor {
+        private final BrewingRecipe recipe;
+        private final Material ingredient;
+        private final boolean relatedIngredient; // Same base, related ingredient, otherwise same ingredient on another base
+
+        private Neighbor(BrewingRecipe recipe, Material ingredient, boolean relatedIngredient) {
+            this.recipe = recipe;
+            this.ingredient = ingredient;
+            this.relatedIngredient = relatedIngredient;
+        }
+
+        private Component toHint(Material brewedIngredient) {
+            Component hint = Component.text("💡 ", NamedTextColor.YELLOW);
+            if (relatedIngredient) {
+                return hint.append(Component.text("This base reacts to something like ", NamedTextColor.GRAY))
+                        .append(Component.text(formatMaterial(brewedIngredient), NamedTextColor.WHITE))
+                        .append(Component.text("... but not quite that.", NamedTextColor.GRAY));
+            }
+            return hint.append(Component.text("The ", NamedTextColor.GRAY))
+                    .append(Component.text(formatMaterial(ingredient), NamedTextColor.WHITE))
+                    .append(Component.text(" seems to react with a ", NamedTextColor.GRAY))
+                    .append(Component.text(formatMaterial(recipe.getBasePotion()), NamedTextColor.WHITE))
+                    .append(Component.text(" instead.", NamedTextColor.GRAY));
+        }
+    }
+}
@@ -0,0 +1,322 @@
+package net.pwing.brewmasters.managers;
+
+import net.pwing.brewmasters.BrewMasters;
+import net.pwing.brewmasters.models.PlayerData;
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Player;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps top-N leaderboards for brewing statistics
+ *
+ * Each board is a list sorted by value that is updated whenever a tracked stat
+ * changes, and published as an immutable array so placeholders can read a rank
+ * in constant time from any thread. Tracked stats only ever grow, so a player
+ * outside the top N can only enter it through an update.
+ */
+public class LeaderboardManager {
+
+    public static final int MAX_ENTRIES = 100;
+    private static final long SAVE_DELAY_TICKS = 100L;
+
+    private final BrewMasters plugin;
+    private final File dataFile;
+    private final Map<Stat, List<Entry>> boards = new EnumMap<>(Stat.class);
+    private final Map<Stat, Entry[]> snapshots = new ConcurrentHashMap<>();
+    private boolean saveScheduled;
+
+    public LeaderboardManager(BrewMasters plugin) {
+        this.plugin = plugin;
+        this.dataFile = new File(plugin.getDataFolder(), "leaderboards.yml");
+
+        for (Stat stat : Stat.values()) {
+            boards.put(stat, new ArrayList<>());
+            snapshots.put(stat, new Entry[0]);
+        }
+
+        if (dataFile.exists()) {
+            load();
+        } else {
+            seedFromPlayerData();
+        }
+    }
+
+    /**
+     * Record a new value of a stat for a player
+     */
+    public void update(Player player, Stat stat, int value) {
+        update(player.getUniqueId(), player.getName(), stat, value);
+    }
+
+    private void update(UUID playerId, String name, Stat stat, int value) {
+        List<Entry> board = boards.get(stat);
+
+        // Cheap reject: board is full and the value would not make the cut
+        if (board.size() >= MAX_ENTRIES && value <= board.get(board.size() - 1).value
+                && !containsPlayer(board, playerId)) {
+            return;
+        }
+
+        for (int i = 0; i < board.size(); i++) {
+            if (board.get(i).playerId.equals(playerId)) {
+                board.remove(i);
+                break;
+            }
+        }
+
+        board.add(insertionPoint(board, value), new Entry(playerId, name, value));
+        if (board.size() > MAX_ENTRIES) {
+            board.remove(board.size() - 1);
+        }
+
+        snapshots.put(stat, board.toArray(new Entry[0]));
+        scheduleSave();
+    }
+
+    /**
+     * Record every tracked stat of a player at once
+     */
+    public void updateAll(Player player, PlayerData data) {
+        for (Stat stat : Stat.values()) {
+            update(player, stat, stat.getValue(data));
+        }
+    }
+
+    /**
+     * Get the entry at a rank (1-based)
+     * @return The entry, or null if the board has fewer entries
+     */
+    public Entry getEntry(Stat stat, int rank) {
+        Entry[] snapshot = snapshots.get(stat);
+        return rank >= 1 && rank <= snapshot.length ? snapshot[rank - 1] : null;
+    }
+
+    /**
+     * Get the value of a player on a board
+     * @return The value, or 0 if the player is not on the board
+     */
+    private int getValue(Stat stat, UUID playerId) {
+        for (Entry entry : boards.get(stat)) {
+            if (entry.playerId.equals(playerId)) {
+                return entry.value;
+            }
+        }
+        return 0;
+    }
+
+    private static boolean containsPlayer(List<Entry> board, UUID playerId) {
+        for (Entry entry : board) {
+            if (entry.playerId.equals(playerId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Find where a value goes in a board sorted from highest to lowest (after equal values)
+     */
+    private static int insertionPoint(List<Entry> board, int value) {
+        int low = 0;
+        int high = board.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (board.get(mid).value >= value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private void scheduleSave() {
+        if (saveScheduled) {
+            return;
+        }
+        saveScheduled = true;
+        Bukkit.getScheduler().runTaskLater(plugin, () -> {
+            saveScheduled = false;
+            FileConfiguration config = snapshotConfig();
+            Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> write(config));
+        }, SAVE_DELAY_TICKS);
+    }
+
+    /**
+     * Save the leaderboards synchronously (on shutdown)
+     */
+    public void save() {
+        write(snapshotConfig());
+    }
+
+    private FileConfiguration snapshotConfig() {
+        FileConfiguration config = new YamlConfiguration();
+        for (Stat stat : Stat.values()) {
+            List<String> lines = new ArrayList<>();
+            for (Entry entry : snapshots.get(stat)) {
+                lines.add(entry.playerId + ";" + entry.value + ";" + entry.name);
+            }
+            config.set(stat.getKey(), lines);
+        }
+        return config;
+    }
+
+    private void write(FileConfiguration config) {
+        synchronized (dataFile) {
+            try {
+                config.save(dataFile);
+            } catch (IOException e) {
+                plugin.getLogger().severe("Failed to save leaderboards: " + e.getMessage());
+            }
+        }
+    }
+
+    private void load() {
+        FileConfiguration config = YamlConfiguration.loadConfiguration(dataFile);
+        for (Stat stat : Stat.values()) {
+            List<Entry> board = boards.get(stat);
+            for (String line : config.getStringList(stat.getKey())) {
+                String[] parts = line.split(";", 3);
+                if (parts.length < 3) {
+                    continue;
+                }
+                try {
+                    board.add(new Entry(UUID.fromString(parts[0]), parts[2], Integer.parseInt(parts[1])));
+                } catch (IllegalArgumentException e) {
+                    plugin.getLogger().warning("Skipping invalid leaderboard entry: " + line);
+                }
+            }
+            board.sort((a, b) -> Integer.compare(b.value, a.value));
+            while (board.size() > MAX_ENTRIES) {
+                board.remove(board.size() - 1);
+            }
+            snapshots.put(stat, board.toArray(new Entry[0]));
+        }
+    }
+
+    /**
+     * Build the boards once from existing player files, for servers upgrading to leaderboards
+     */
+    private void seedFromPlayerData() {
+        File playerDataFolder = new File(plugin.getDataFolder(), "playerdata");
+        File[] files = playerDataFolder.listFiles((dir, name) -> name.endsWith(".yml"));
+        if (files == null || files.length == 0) {
+            return;
+        }
+
+        plugin.getLogger().info("Building leaderboards from " + files.length + " player files...");
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            List<PlayerData> loaded = new ArrayList<>();
+            for (File file : files) {
+                try {
+                    loaded.add(PlayerData.fromConfig(YamlConfiguration.loadConfiguration(file)));
+                } catch (Exception e) {
+                    plugin.getLogger().warning("Skipping " + file.getName() + " for leaderboards: " + e.getMessage());
+                }
+            }
+
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                for (PlayerData fileData : loaded) {
+                    // Loaded players may have progressed since their file was read, use their live data
+                    PlayerData data = plugin.getPlayerDataManager().isLoaded(fileData.getPlayerId())
+                            ? plugin.getPlayerDataManager().getPlayerData(fileData.getPlayerId())
+                            : fileData;
+                    OfflinePlayer offlinePlayer = Bukkit.getOfflinePlayer(data.getPlayerId());
+                    String name = offlinePlayer.getName() != null ? offlinePlayer.getName()
+                            : data.getPlayerId().toString();
+                    for (Stat stat : Stat.values()) {
+                        int value = Math.max(stat.getValue(data), getValue(stat, data.getPlayerId()));
+                        if (value > 0) {
+                            update(data.getPlayerId(), name, stat, value);
+                        }
+                    }
+                }
+                plugin.getLogger().info("Leaderboards built.");
+            });
+        });
+    }
+
+    /**
+     * Stats with a leaderboard
+     */
+    public enum Stat {
+        BREWED("brewed"),
+        DISCOVERED("discovered"),
+        ACHIEVEMENTS("achievements"),
+        CHAINS("chains");
+
+        private final String key;
+
+        Stat(String key) {
+            this.key = key;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        /**
+         * Read this stat from player data
+         */
+        public int getValue(PlayerData data) {
+            switch (this) {
+                case BREWED:
+                    return data.getTotalPotionsBrewed();
+                case DISCOVERED:
+                    return data.getTotalRecipesDiscovered();
+                case ACHIEVEMENTS:
+                    return data.getTotalAchievements();
+                case CHAINS:
+                default:
+                    return data.getTotalChainsCompleted();
+            }
+        }
+
+        public static Stat fromKey(String key) {
+            for (Stat stat : values()) {
+                if (stat.key.equals(key)) {
+                    return stat;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * One ranked player
+     */
+    public static final class Entry {
+        private final UUID playerId;
+        private final String name;
+        private final int value;
+
+        private Entry(UUID playerId, String name, int value) {
+            this.playerId = playerId;
+            this.name = name;
+            this.value = value;
+        }
+
+        public UUID getPlayerId() {
+            return playerId;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getValue() {
+            return value;
+        }
+    }
+}
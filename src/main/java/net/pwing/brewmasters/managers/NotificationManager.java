@@ -0,0 +1,111 @@
+package net.pwing.brewmasters.managers;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.JoinConfiguration;
+import net.pwing.brewmasters.BrewMasters;
+import org.bukkit.Bukkit;
+import org.bukkit.Sound;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Collects the notifications raised for each player during a tick and sends them together
+ *
+ * One brew can discover a recipe, unlock several achievements and advance
+ * chains in the same call stack. Rather than each sending its own lines and
+ * sound, they are queued here and flushed on the next tick: every player
+ * gets one composed message and only the sound of their most important
+ * notification.
+ */
+public class NotificationManager {
+
+    private final BrewMasters plugin;
+    private final Map<UUID, Pending> pending = new LinkedHashMap<>();
+    private boolean flushScheduled;
+
+    public NotificationManager(BrewMasters plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Queue a notification for a player
+     * @param kind What is being announced, decides the sound
+     * @param lines The lines of the notification
+     */
+    public void notify(Player player, Kind kind, List<Component> lines) {
+        if (!Bukkit.isPrimaryThread()) {
+            Bukkit.getScheduler().runTask(plugin, () -> notify(player, kind, lines));
+            return;
+        }
+
+        Pending playerPending = pending.computeIfAbsent(player.getUniqueId(), id -> new Pending());
+        playerPending.notifications.add(lines);
+        if (playerPending.loudest == null || kind.ordinal() > playerPending.loudest.ordinal()) {
+            playerPending.loudest = kind;
+        }
+
+        if (!flushScheduled) {
+            flushScheduled = true;
+            Bukkit.getScheduler().runTask(plugin, this::flush);
+        }
+    }
+
+    /**
+     * Send everything queued, one message and one sound per player
+     */
+    private void flush() {
+        flushScheduled = false;
+        for (Map.Entry<UUID, Pending> entry : pending.entrySet()) {
+            Player player = Bukkit.getPlayer(entry.getKey());
+            if (player != null) {
+                entry.getValue().send(player);
+            }
+        }
+        pending.clear();
+    }
+
+    /**
+     * What a notification announces, in increasing order of importance
+     */
+    public enum Kind {
+        CHAIN(null, 1.0f),
+        DISCOVERY(Sound.ENTITY_PLAYER_LEVELUP, 1.5f),
+        ACHIEVEMENT(Sound.UI_TOAST_CHALLENGE_COMPLETE, 1.0f);
+
+        private final Sound sound;
+        private final float pitch;
+
+        Kind(Sound sound, float pitch) {
+            this.sound = sound;
+            this.pitch = pitch;
+        }
+    }
+
+    /**
+     * The notifications queued for one player
+     */
+    private static final class Pending {
+        private final List<List<Component>> notifications = new ArrayList<>();
+        private Kind loudest;
+
+        private void send(Player player) {
+            // Notifications are separated by a blank line, and the whole message framed by them
+            List<Component> message = new ArrayList<>();
+            message.add(Component.empty());
+            for (List<Component> lines : notifications) {
+                message.addAll(lines);
+                message.add(Component.empty());
+            }
+            player.sendMessage(Component.join(JoinConfiguration.newlines(), message));
+
+            if (loudest.sound != null) {
+                player.playSound(player.getLocation(), loudest.sound, 1.0f, loudest.pitch);
+            }
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package net.pwing.brewmasters.managers;
+
+import net.pwing.brewmasters.BrewMasters;
+import net.pwing.brewmasters.models.BrewingRecipe;
+import net.pwing.brewmasters.models.PeriodicEffect;
+import net.pwing.brewmasters.utils.CommandContext;
+import org.bukkit.Bukkit;
+import org.bukkit.attribute.Attribute;
+import org.bukkit.attribute.AttributeInstance;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Runs recipe periodic effects from a single repeating task
+ *
+ * Scheduled effects live in a ring of tick buckets. Each tick only the bucket
+ * for that tick is walked, and every effect is given a hashed start offset
+ * within its interval so effects with the same interval are spread evenly
+ * across ticks instead of all firing together.
+ */
+public class PeriodicEffectManager {
+
+    // Power of two so the bucket index is a mask
+    private static final int BUCKET_COUNT = 64;
+    private static final int BUCKET_MASK = BUCKET_COUNT - 1;
+
+    private final BrewMasters plugin;
+    @SuppressWarnings("unchecked")
+    private final List<ScheduledEffect>[] buckets = new List[BUCKET_COUNT];
+    private final Map<UUID, List<ScheduledEffect>> effectsByPlayer = new HashMap<>();
+    private long currentTick;
+    private int taskId = -1;
+
+    public PeriodicEffectManager(BrewMasters plugin) {
+        this.plugin = plugin;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets[i] = new ArrayList<>();
+        }
+        taskId = Bukkit.getScheduler().scheduleSyncRepeatingTask(plugin, this::tick, 1L, 1L);
+    }
+
+    /**
+     * Start a recipe's periodic effects for a player
+     * @param player The affected player
+     * @param recipe The recipe
+     * @param durationTicks How long the effects run for
+     */
+    public void schedule(Player player, BrewingRecipe recipe, long durationTicks) {
+        List<PeriodicEffect> periodicEffects = recipe.getPeriodicEffects();
+        if (periodicEffects.isEmpty() || durationTicks <= 0) {
+            return;
+        }
+
+        CommandContext context = CommandContext.of(player).recipe(recipe);
+        long endTick = currentTick + durationTicks;
+        List<ScheduledEffect> playerEffects = effectsByPlayer.computeIfAbsent(player.getUniqueId(), k -> new ArrayList<>());
+
+        // Drinking the same recipe again refreshes its periodic effects rather than stacking them
+        for (ScheduledEffect existing : playerEffects) {
+            if (existing.recipeId.equals(recipe.getId()) && !existing.cancelled) {
+                if (existing.endTick > endTick) {
+                    return;
+                }
+                existing.cancelled = true;
+            }
+        }
+        playerEffects.removeIf(existing -> existing.cancelled);
+
+        for (int i = 0; i < periodicEffects.size(); i++) {
+            PeriodicEffect periodicEffect = periodicEffects.get(i);
+            int interval = periodicEffect.getIntervalTicks();
+            int hash = 31 * (31 * player.getUniqueId().hashCode() + recipe.getId().hashCode()) + i;
+            long offset = Math.floorMod(hash, interval);
+
+            ScheduledEffect scheduled = new ScheduledEffect(player, recipe.getId(), context, periodicEffect, endTick);
+            scheduled.nextTick = currentTick + offset + 1;
+            if (scheduled.nextTick > endTick) {
+                continue;
+            }
+
+            buckets[bucketOf(scheduled.nextTick)].add(scheduled);
+            playerEffects.add(scheduled);
+        }
+
+        if (playerEffects.isEmpty()) {
+            effectsByPlayer.remove(player.getUniqueId());
+        }
+    }
+
+    /**
+     * Stop all periodic effects of a player, e.g. when they log out
+     */
+    public void cancel(UUID playerId) {
+        List<ScheduledEffect> playerEffects = effectsByPlayer.remove(playerId);
+        if (playerEffects != null) {
+            for (ScheduledEffect scheduled : playerEffects) {
+                // Removed from its bucket the next time that bucket is walked
+                scheduled.cancelled = true;
+            }
+        }
+    }
+
+    private void tick() {
+        currentTick++;
+        List<ScheduledEffect> bucket = buckets[bucketOf(currentTick)];
+
+        int index = 0;
+        while (index < bucket.size()) {
+            ScheduledEffect scheduled = bucket.get(index);
+
+            if (!scheduled.cancelled && scheduled.nextTick > currentTick) {
+                // Due on a later lap of the ring
+                index++;
+                continue;
+            }
+
+            if (!scheduled.cancelled) {
+                run(scheduled);
+                scheduled.nextTick += scheduled.effect.getIntervalTicks();
+            }
+
+            if (scheduled.cancelled || scheduled.nextTick > scheduled.endTick) {
+                removeAt(bucket, index);
+                forget(scheduled);
+            } else if (bucketOf(scheduled.nextTick) != bucketOf(currentTick)) {
+                removeAt(bucket, index);
+                buckets[bucketOf(scheduled.nextTick)].add(scheduled);
+            } else {
+                index++;
+            }
+        }
+    }
+
+    private void run(ScheduledEffect scheduled) {
+        Player player = scheduled.player;
+        if (!player.isOnline()) {
+            scheduled.cancelled = true;
+            return;
+        }
+
+        PeriodicEffect effect = scheduled.effect;
+        if (effect.getHeal() > 0 && !player.isDead()) {
+            AttributeInstance maxHealth = player.getAttribute(Attribute.GENERIC_MAX_HEALTH);
+            double max = maxHealth != null ? maxHealth.getValue() : 20.0;
+            player.setHealth(Math.min(max, player.getHealth() + effect.getHeal()));
+        }
+
+        plugin.getCommandManager().dispatch(effect.getCommandTemplates(), scheduled.context,
+                CommandManager.Trigger.PERIODIC);
+    }
+
+    /**
+     * Swap-remove, order within a bucket does not matter
+     */
+    private static void removeAt(List<ScheduledEffect> bucket, int index) {
+        int last = bucket.size() - 1;
+        bucket.set(index, bucket.get(last));
+        bucket.remove(last);
+    }
+
+    private void forget(ScheduledEffect scheduled) {
+        UUID playerId = scheduled.player.getUniqueId();
+        List<ScheduledEffect> playerEffects = effectsByPlayer.get(playerId);
+        if (playerEffects != null) {
+            playerEffects.remove(scheduled);
+            if (playerEffects.isEmpty()) {
+                effectsByPlayer.remove(playerId);
+            }
+        }
+    }
+
+    private static int bucketOf(long tick) {
+        return (int) (tick & BUCKET_MASK);
+    }
+
+    /**
+     * Stop the scheduler task
+     */
+    public void shutdown() {
+        if (taskId != -1) {
+            Bukkit.getScheduler().cancelTask(taskId);
+            taskId = -1;
+        }
+    }
+
+    private static final class ScheduledEffect {
+        private final Player player;
+        private final String recipeId;
+        private final CommandContext context;
+        private final PeriodicEffect effect;
+        private final long endTick;
+        private long nextTick;
+        private boolean cancelled;
+
+        private ScheduledEffect(Player player, String recipeId, CommandContext context, PeriodicEffect effect,
+                                long endTick) {
+            this.player = player;
+            this.recipeId = recipeId;
+            this.context = context;
+            this.effect = effect;
+            this.endTick = endTick;
+        }
+    }
+}
@@ -49,10 +49,18 @@ public class PlayerDataManager {
         if (data == null) {
             data = loadPlayerData(playerId);
             playerDataCache.put(playerId, data);
+            plugin.getDiscoveryGroupManager().attach(data);
         }
         return data;
     }
 
+    /**
+     * Check if the data of a player is loaded
+     */
+    public boolean isLoaded(UUID playerId) {
+        return playerDataCache.containsKey(playerId);
+    }
+
     /**
      * Load player data from file
      */
@@ -139,6 +147,11 @@ public class PlayerDataManager {
         if (data.discoverRecipe(recipeId)) {
             // Recipe was newly discovered
             savePlayerData(player);
+            plugin.getAnalyticsManager().increment(AnalyticsManager.Metric.DISCOVERIES, recipeId);
+            plugin.getBrewingChainManager().onRecipeDiscovered(player.getUniqueId(), recipeId);
+            plugin.getDiscoveryGroupManager().onRecipeDiscovered(data, recipeId);
+            plugin.getLeaderboardManager().update(player, LeaderboardManager.Stat.DISCOVERED,
+                    data.getTotalRecipesDiscovered());
         }
     }
 
@@ -3,6 +3,8 @@ package net.pwing.brewmasters.managers;
 import net.pwing.brewmasters.BrewMasters;
 import net.pwing.brewmasters.models.ActivePotionEffect;
 import net.pwing.brewmasters.models.BrewingRecipe;
+import net.pwing.brewmasters.utils.CommandContext;
+import net.pwing.brewmasters.utils.CommandTemplate;
 import org.bukkit.Bukkit;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
@@ -14,6 +16,9 @@ import java.io.File;
 import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Manages active custom potion effects and command execution
@@ -21,15 +26,40 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 public class PotionEffectManager {
     
+    // Delay before dirty entries are flushed, so bursts of changes coalesce into one write
+    private static final long SAVE_DELAY_TICKS = 40L;
+    
     private final BrewMasters plugin;
     private final Map<UUID, List<ActivePotionEffect>> activeEffects;
-    private final File dataFile;
+    // Longest-running live effect per (player, recipe), backing the effect placeholders
+    private final Map<UUID, Map<String, ActivePotionEffect>> effectIndex;
+    private final File dataFolder;
+    private final File legacyDataFile;
+    private final PriorityQueue<ActivePotionEffect> expiryQueue;
+    private final Map<UUID, List<ActivePotionEffect>> pendingExpirations;
+    private final Set<UUID> dirtyPlayers;
+    private final ExecutorService saveExecutor;
+    private boolean saveScheduled;
     private int taskId = -1;
     
     public PotionEffectManager(BrewMasters plugin) {
         this.plugin = plugin;
         this.activeEffects = new ConcurrentHashMap<>();
-        this.dataFile = new File(plugin.getDataFolder(), "active-effects.yml");
+        this.effectIndex = new ConcurrentHashMap<>();
+        this.dataFolder = new File(plugin.getDataFolder(), "active-effects");
+        this.legacyDataFile = new File(plugin.getDataFolder(), "active-effects.yml");
+        this.expiryQueue = new PriorityQueue<>(Comparator.comparingLong(ActivePotionEffect::getExpiryTime));
+        this.pendingExpirations = new HashMap<>();
+        this.dirtyPlayers = new HashSet<>();
+        this.saveExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "BrewMasters-EffectSaver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        
+        if (!dataFolder.exists()) {
+            dataFolder.mkdirs();
+        }
         
         loadActiveEffects();
         startExpirationTask();
@@ -39,138 +69,197 @@ public class PotionEffectManager {
      * Handle potion consumption - run drink commands
      */
     public void onPotionDrunk(Player player, BrewingRecipe recipe) {
-        List<String> drinkCommands = recipe.getDrinkCommands();
-        if (drinkCommands != null && !drinkCommands.isEmpty()) {
-            executeCommands(player, recipe, drinkCommands);
+        onPotionApplied(Collections.singletonList(player), recipe);
+    }
+    
+    /**
+     * Handle a potion reaching several players at once (splash or lingering) -
+     * run drink commands and track expiry for all of them in one pass
+     */
+    public void onPotionApplied(Collection<Player> players, BrewingRecipe recipe) {
+        if (players.isEmpty()) {
+            return;
         }
         
-        // Track active effects with expire commands
-        List<String> expireCommands = recipe.getExpireCommands();
-        if (expireCommands != null && !expireCommands.isEmpty()) {
-            // Get longest effect duration from recipe
-            long maxDuration = 0;
-            for (PotionEffect effect : recipe.getEffects()) {
-                long effectDuration = effect.getDuration() * 50L; // ticks to milliseconds
-                if (effectDuration > maxDuration) {
-                    maxDuration = effectDuration;
-                }
+        for (Player player : players) {
+            plugin.getCommandManager().dispatch(recipe.getDrinkCommandTemplates(),
+                    CommandContext.of(player).recipe(recipe), CommandManager.Trigger.DRINK);
+        }
+        
+        // Track active effects with expire commands or periodic effects
+        if (recipe.getExpireCommandTemplates().isEmpty() && recipe.getPeriodicEffects().isEmpty()) {
+            return;
+        }
+        
+        // Get longest effect duration from recipe
+        long maxDuration = 0;
+        for (PotionEffect effect : recipe.getEffects()) {
+            long effectDuration = effect.getDuration() * 50L; // ticks to milliseconds
+            if (effectDuration > maxDuration) {
+                maxDuration = effectDuration;
             }
-            
-            if (maxDuration > 0) {
-                String effectName = recipe.getResultName() != null ? recipe.getResultName() : recipe.getId();
+        }
+        
+        if (maxDuration > 0) {
+            String effectName = recipe.getResultName() != null ? recipe.getResultName() : recipe.getId();
+            List<String> expireCommands = recipe.getExpireCommands(); // Copied once, shared by every affected player
+            for (Player player : players) {
                 ActivePotionEffect activeEffect = new ActivePotionEffect(
                     player.getUniqueId(),
                     recipe.getId(),
                     effectName,
                     maxDuration,
-                    expireCommands
+                    expireCommands,
+                    recipe.getExpireCommandTemplates()
                 );
                 
                 addActiveEffect(player.getUniqueId(), activeEffect);
+                plugin.getPeriodicEffectManager().schedule(player, recipe, maxDuration / 50L);
             }
         }
     }
     
     /**
-     * Execute commands with placeholder replacement
+     * Add active effect for tracking
      */
-    private void executeCommands(Player player, BrewingRecipe recipe, List<String> commands) {
-        for (String command : commands) {
-            String processedCommand = command
-                .replace("{player}", player.getName())
-                .replace("{uuid}", player.getUniqueId().toString())
-                .replace("{recipe_id}", recipe.getId())
-                .replace("{recipe_name}", recipe.getResultName() != null ? recipe.getResultName() : recipe.getId());
-            
-            // Support both console and player commands
-            if (processedCommand.startsWith("[player]")) {
-                String playerCommand = processedCommand.substring(8).trim();
-                Bukkit.getScheduler().runTask(plugin, () -> 
-                    player.performCommand(playerCommand)
-                );
-            } else if (processedCommand.startsWith("[console]")) {
-                String consoleCommand = processedCommand.substring(9).trim();
-                Bukkit.getScheduler().runTask(plugin, () -> 
-                    Bukkit.dispatchCommand(Bukkit.getConsoleSender(), consoleCommand)
-                );
-            } else {
-                // Default to console command
-                Bukkit.getScheduler().runTask(plugin, () -> 
-                    Bukkit.dispatchCommand(Bukkit.getConsoleSender(), processedCommand)
-                );
+    private void addActiveEffect(UUID playerId, ActivePotionEffect effect) {
+        activeEffects.computeIfAbsent(playerId, k -> new ArrayList<>()).add(effect);
+        expiryQueue.add(effect);
+        indexEffect(effect);
+        markDirty(playerId);
+    }
+    
+    /**
+     * Index a live effect unless a longer-running one for the same recipe is already indexed
+     */
+    private void indexEffect(ActivePotionEffect effect) {
+        effectIndex.computeIfAbsent(effect.getPlayerId(), k -> new ConcurrentHashMap<>())
+                .merge(effect.getRecipeId(), effect,
+                        (current, added) -> added.getExpiryTime() >= current.getExpiryTime() ? added : current);
+    }
+    
+    /**
+     * Drop an effect from the index if it is the one currently indexed
+     */
+    private void unindexEffect(ActivePotionEffect effect) {
+        Map<String, ActivePotionEffect> playerIndex = effectIndex.get(effect.getPlayerId());
+        if (playerIndex != null) {
+            playerIndex.remove(effect.getRecipeId(), effect);
+            if (playerIndex.isEmpty()) {
+                effectIndex.remove(effect.getPlayerId());
             }
         }
     }
     
     /**
-     * Add active effect for tracking
+     * Register a loaded effect with the expiry queue, or park it if it already fired
      */
-    private void addActiveEffect(UUID playerId, ActivePotionEffect effect) {
-        activeEffects.computeIfAbsent(playerId, k -> new ArrayList<>()).add(effect);
-        saveActiveEffects();
+    private void scheduleLoadedEffect(ActivePotionEffect effect) {
+        if (effect.hasExpired()) {
+            pendingExpirations.computeIfAbsent(effect.getPlayerId(), k -> new ArrayList<>()).add(effect);
+        } else {
+            expiryQueue.add(effect);
+            indexEffect(effect);
+        }
     }
     
     /**
      * Start expiration checking task
      */
     private void startExpirationTask() {
-        // Check every second for expired effects
+        // Check every second, only touching effects whose deadline has passed
         taskId = Bukkit.getScheduler().scheduleSyncRepeatingTask(plugin, () -> {
-            for (Map.Entry<UUID, List<ActivePotionEffect>> entry : activeEffects.entrySet()) {
-                UUID playerId = entry.getKey();
-                List<ActivePotionEffect> effects = entry.getValue();
-                Player player = Bukkit.getPlayer(playerId);
-                
-                Iterator<ActivePotionEffect> iterator = effects.iterator();
-                while (iterator.hasNext()) {
-                    ActivePotionEffect effect = iterator.next();
-                    
-                    if (effect.isExpired() && !effect.hasExpired()) {
-                        effect.markExpired();
-                        
-                        // Run expire commands if player is online
-                        if (player != null && player.isOnline()) {
-                            BrewingRecipe recipe = plugin.getRecipeManager().getRecipe(effect.getRecipeId());
-                            if (recipe != null) {
-                                executeCommands(player, recipe, effect.getExpireCommands());
-                            }
-                        }
-                        
-                        iterator.remove();
-                    }
+            long now = System.currentTimeMillis();
+            
+            ActivePotionEffect effect;
+            while ((effect = expiryQueue.peek()) != null && effect.getExpiryTime() <= now) {
+                expiryQueue.poll();
+                if (!effect.hasExpired()) {
+                    expireEffect(effect);
                 }
             }
-            
-            saveActiveEffects();
         }, 20L, 20L); // Run every second
     }
     
+    /**
+     * Fire an effect that reached its deadline: run expire commands now if the player
+     * is online, otherwise park it until they log in
+     */
+    private void expireEffect(ActivePotionEffect effect) {
+        UUID playerId = effect.getPlayerId();
+        effect.markExpired();
+        unindexEffect(effect);
+        
+        Player player = Bukkit.getPlayer(playerId);
+        if (player != null && player.isOnline()) {
+            runExpireCommands(player, effect);
+            removeActiveEffect(playerId, effect);
+        } else {
+            // Keep the entry (now flagged expired) so the pending state survives restarts
+            pendingExpirations.computeIfAbsent(playerId, k -> new ArrayList<>()).add(effect);
+        }
+        
+        markDirty(playerId);
+    }
+    
+    /**
+     * Run the expire commands of an effect for a player
+     */
+    private void runExpireCommands(Player player, ActivePotionEffect effect) {
+        // The commands were captured at drink time, so they still run if the recipe was removed since
+        CommandContext context = CommandContext.of(player)
+                .set(CommandTemplate.Placeholder.RECIPE_ID, effect.getRecipeId())
+                .set(CommandTemplate.Placeholder.RECIPE_NAME, effect.getEffectName());
+        plugin.getCommandManager().dispatch(effect.getExpireCommandTemplates(), context, CommandManager.Trigger.EXPIRE);
+    }
+    
+    /**
+     * Stop tracking an effect
+     */
+    private void removeActiveEffect(UUID playerId, ActivePotionEffect effect) {
+        List<ActivePotionEffect> effects = activeEffects.get(playerId);
+        if (effects != null) {
+            effects.remove(effect);
+            if (effects.isEmpty()) {
+                activeEffects.remove(playerId);
+            }
+        }
+    }
+    
     /**
      * Handle player login - run expired commands that were missed
      */
     public void onPlayerLogin(Player player) {
         UUID playerId = player.getUniqueId();
-        List<ActivePotionEffect> effects = activeEffects.get(playerId);
+        List<ActivePotionEffect> pending = pendingExpirations.remove(playerId);
         
-        if (effects != null) {
-            Iterator<ActivePotionEffect> iterator = effects.iterator();
-            while (iterator.hasNext()) {
-                ActivePotionEffect effect = iterator.next();
-                
-                // Check if effect expired while player was offline
-                if (effect.isExpired() && !effect.hasExpired()) {
-                    effect.markExpired();
-                    
-                    BrewingRecipe recipe = plugin.getRecipeManager().getRecipe(effect.getRecipeId());
-                    if (recipe != null) {
-                        executeCommands(player, recipe, effect.getExpireCommands());
-                    }
-                    
-                    iterator.remove();
-                }
+        if (pending != null) {
+            for (ActivePotionEffect effect : pending) {
+                runExpireCommands(player, effect);
+                removeActiveEffect(playerId, effect);
             }
             
-            saveActiveEffects();
+            markDirty(playerId);
+        }
+        
+        resumePeriodicEffects(player);
+    }
+    
+    /**
+     * Restart periodic effects for effects still running when a player logs in
+     */
+    private void resumePeriodicEffects(Player player) {
+        Map<String, ActivePotionEffect> playerIndex = effectIndex.get(player.getUniqueId());
+        if (playerIndex == null) {
+            return;
+        }
+        
+        long now = System.currentTimeMillis();
+        for (ActivePotionEffect effect : playerIndex.values()) {
+            BrewingRecipe recipe = plugin.getRecipeManager().getRecipe(effect.getRecipeId());
+            if (recipe != null) {
+                plugin.getPeriodicEffectManager().schedule(player, recipe, (effect.getExpiryTime() - now) / 50L);
+            }
         }
     }
     
@@ -185,108 +274,203 @@ public class PotionEffectManager {
      * Get time remaining for a specific effect
      */
     public int getTimeRemaining(UUID playerId, String recipeId) {
-        List<ActivePotionEffect> effects = activeEffects.get(playerId);
-        if (effects != null) {
-            for (ActivePotionEffect effect : effects) {
-                if (effect.getRecipeId().equals(recipeId)) {
-                    return effect.getTimeRemainingSeconds();
-                }
-            }
-        }
-        return 0;
+        ActivePotionEffect effect = getIndexedEffect(playerId, recipeId);
+        return effect != null ? effect.getTimeRemainingSeconds() : 0;
     }
     
     /**
      * Get formatted time remaining for a specific effect
      */
     public String getFormattedTimeRemaining(UUID playerId, String recipeId) {
-        List<ActivePotionEffect> effects = activeEffects.get(playerId);
-        if (effects != null) {
-            for (ActivePotionEffect effect : effects) {
-                if (effect.getRecipeId().equals(recipeId)) {
-                    return effect.getFormattedTimeRemaining();
-                }
-            }
-        }
-        return "0:00";
+        ActivePotionEffect effect = getIndexedEffect(playerId, recipeId);
+        return effect != null ? effect.getFormattedTimeRemaining() : "0:00";
+    }
+    
+    /**
+     * Look up the live effect for a player and recipe
+     */
+    private ActivePotionEffect getIndexedEffect(UUID playerId, String recipeId) {
+        Map<String, ActivePotionEffect> playerIndex = effectIndex.get(playerId);
+        return playerIndex != null ? playerIndex.get(recipeId) : null;
     }
     
     /**
-     * Load active effects from file
+     * Load active effects from per-player files, migrating the legacy single file if present
      */
     private void loadActiveEffects() {
-        if (!dataFile.exists()) {
-            return;
+        File[] files = dataFolder.listFiles((dir, name) -> name.endsWith(".yml"));
+        if (files != null) {
+            for (File file : files) {
+                String playerIdStr = file.getName().substring(0, file.getName().length() - 4);
+                try {
+                    UUID playerId = UUID.fromString(playerIdStr);
+                    FileConfiguration config = YamlConfiguration.loadConfiguration(file);
+                    List<ActivePotionEffect> effects = loadEffects(playerId, config.getConfigurationSection("effects"));
+                    
+                    if (!effects.isEmpty()) {
+                        activeEffects.put(playerId, effects);
+                        effects.forEach(this::scheduleLoadedEffect);
+                    }
+                } catch (IllegalArgumentException e) {
+                    plugin.getLogger().warning("Invalid UUID in active effects: " + playerIdStr);
+                } catch (Exception e) {
+                    plugin.getLogger().severe("Failed to load active effects for " + playerIdStr + ": " + e.getMessage());
+                }
+            }
         }
         
+        if (legacyDataFile.exists()) {
+            migrateLegacyFile();
+        }
+    }
+    
+    /**
+     * Import effects from the old active-effects.yml and rewrite them as per-player files
+     */
+    private void migrateLegacyFile() {
         try {
-            FileConfiguration config = YamlConfiguration.loadConfiguration(dataFile);
+            FileConfiguration config = YamlConfiguration.loadConfiguration(legacyDataFile);
             ConfigurationSection section = config.getConfigurationSection("active-effects");
             
             if (section != null) {
                 for (String playerIdStr : section.getKeys(false)) {
                     try {
                         UUID playerId = UUID.fromString(playerIdStr);
-                        ConfigurationSection playerSection = section.getConfigurationSection(playerIdStr);
+                        List<ActivePotionEffect> effects = loadEffects(playerId, section.getConfigurationSection(playerIdStr));
                         
-                        if (playerSection != null) {
-                            List<ActivePotionEffect> effects = new ArrayList<>();
-                            
-                            for (String effectKey : playerSection.getKeys(false)) {
-                                ConfigurationSection effectSection = playerSection.getConfigurationSection(effectKey);
-                                if (effectSection != null) {
-                                    ActivePotionEffect effect = ActivePotionEffect.fromConfig(playerId, effectSection);
-                                    effects.add(effect);
-                                }
-                            }
-                            
-                            if (!effects.isEmpty()) {
-                                activeEffects.put(playerId, effects);
-                            }
+                        if (!effects.isEmpty()) {
+                            activeEffects.computeIfAbsent(playerId, k -> new ArrayList<>()).addAll(effects);
+                            effects.forEach(this::scheduleLoadedEffect);
+                            dirtyPlayers.add(playerId);
                         }
                     } catch (IllegalArgumentException e) {
                         plugin.getLogger().warning("Invalid UUID in active effects: " + playerIdStr);
                     }
                 }
             }
+            
+            // Write the migrated entries synchronously before dropping the old file
+            for (Map.Entry<UUID, List<ActivePotionEffect>> entry : snapshotDirty().entrySet()) {
+                writePlayerEffects(entry.getKey(), entry.getValue());
+            }
+            
+            if (!legacyDataFile.delete()) {
+                plugin.getLogger().warning("Could not delete legacy active-effects.yml after migration");
+            }
         } catch (Exception e) {
-            plugin.getLogger().severe("Failed to load active effects: " + e.getMessage());
+            plugin.getLogger().severe("Failed to migrate active effects: " + e.getMessage());
             e.printStackTrace();
         }
     }
     
     /**
-     * Save active effects to file
+     * Read the effect entries of one player section
+     */
+    private List<ActivePotionEffect> loadEffects(UUID playerId, ConfigurationSection playerSection) {
+        List<ActivePotionEffect> effects = new ArrayList<>();
+        if (playerSection == null) {
+            return effects;
+        }
+        
+        for (String effectKey : playerSection.getKeys(false)) {
+            ConfigurationSection effectSection = playerSection.getConfigurationSection(effectKey);
+            if (effectSection != null) {
+                effects.add(ActivePotionEffect.fromConfig(playerId, effectSection));
+            }
+        }
+        return effects;
+    }
+    
+    /**
+     * Mark a player's effects as changed and schedule a coalesced save
+     */
+    private void markDirty(UUID playerId) {
+        dirtyPlayers.add(playerId);
+        
+        if (!saveScheduled) {
+            saveScheduled = true;
+            Bukkit.getScheduler().runTaskLater(plugin, this::flushDirty, SAVE_DELAY_TICKS);
+        }
+    }
+    
+    /**
+     * Snapshot dirty entries on the main thread and hand them to the save thread
      */
-    private void saveActiveEffects() {
+    private void flushDirty() {
+        saveScheduled = false;
+        Map<UUID, List<ActivePotionEffect>> snapshot = snapshotDirty();
+        if (snapshot.isEmpty()) {
+            return;
+        }
+        
+        saveExecutor.execute(() -> {
+            for (Map.Entry<UUID, List<ActivePotionEffect>> entry : snapshot.entrySet()) {
+                writePlayerEffects(entry.getKey(), entry.getValue());
+            }
+        });
+    }
+    
+    /**
+     * Copy the current effect lists of all dirty players and clear the dirty set
+     */
+    private Map<UUID, List<ActivePotionEffect>> snapshotDirty() {
+        Map<UUID, List<ActivePotionEffect>> snapshot = new HashMap<>();
+        for (UUID playerId : dirtyPlayers) {
+            List<ActivePotionEffect> effects = activeEffects.get(playerId);
+            snapshot.put(playerId, effects != null ? new ArrayList<>(effects) : new ArrayList<>());
+        }
+        dirtyPlayers.clear();
+        return snapshot;
+    }
+    
+    /**
+     * Write one player's effects, deleting the file once nothing is left to track
+     */
+    private void writePlayerEffects(UUID playerId, List<ActivePotionEffect> effects) {
+        File playerFile = new File(dataFolder, playerId.toString() + ".yml");
+        
+        if (effects.isEmpty()) {
+            if (playerFile.exists() && !playerFile.delete()) {
+                plugin.getLogger().warning("Failed to delete active effects file for " + playerId);
+            }
+            return;
+        }
+        
         try {
             FileConfiguration config = new YamlConfiguration();
-            ConfigurationSection section = config.createSection("active-effects");
+            ConfigurationSection section = config.createSection("effects");
             
-            for (Map.Entry<UUID, List<ActivePotionEffect>> entry : activeEffects.entrySet()) {
-                ConfigurationSection playerSection = section.createSection(entry.getKey().toString());
-                List<ActivePotionEffect> effects = entry.getValue();
-                
-                for (int i = 0; i < effects.size(); i++) {
-                    ConfigurationSection effectSection = playerSection.createSection("effect-" + i);
-                    effects.get(i).saveToConfig(effectSection);
-                }
+            for (int i = 0; i < effects.size(); i++) {
+                ConfigurationSection effectSection = section.createSection("effect-" + i);
+                effects.get(i).saveToConfig(effectSection);
             }
             
-            config.save(dataFile);
+            config.save(playerFile);
         } catch (IOException e) {
-            plugin.getLogger().severe("Failed to save active effects: " + e.getMessage());
-            e.printStackTrace();
+            plugin.getLogger().severe("Failed to save active effects for " + playerId + ": " + e.getMessage());
         }
     }
     
     /**
-     * Shutdown - save all data and cancel task
+     * Shutdown - flush pending saves and cancel task
      */
     public void shutdown() {
         if (taskId != -1) {
             Bukkit.getScheduler().cancelTask(taskId);
         }
-        saveActiveEffects();
+        
+        // Let queued saves finish, then write whatever is still dirty on this thread
+        saveExecutor.shutdown();
+        try {
+            if (!saveExecutor.awaitTermination(5, TimeUnit.SECONDS)) {
+                plugin.getLogger().warning("Timed out waiting for active effect saves to finish");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        
+        for (Map.Entry<UUID, List<ActivePotionEffect>> entry : snapshotDirty().entrySet()) {
+            writePlayerEffects(entry.getKey(), entry.getValue());
+        }
     }
 }
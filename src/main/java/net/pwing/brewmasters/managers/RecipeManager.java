@@ -5,10 +5,17 @@ import net.pwing.brewmasters.conditions.*;
 import net.pwing.brewmasters.ingredients.BrewingIngredient;
 import net.pwing.brewmasters.ingredients.IngredientFactory;
 import net.pwing.brewmasters.models.BrewingRecipe;
+import net.pwing.brewmasters.models.PeriodicEffect;
+import net.pwing.brewmasters.utils.TextUtils;
 import org.bukkit.Color;
 import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
 import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.AreaEffectCloud;
 import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.bukkit.persistence.PersistentDataType;
 import org.bukkit.potion.PotionEffect;
 import org.bukkit.potion.PotionEffectType;
 
@@ -16,20 +23,34 @@ import java.util.*;
 
 public class RecipeManager {
 
+    // Bump when the layout of the potion tag changes
+    private static final int TAG_VERSION = 1;
+
     private final BrewMasters plugin;
     private final Map<String, BrewingRecipe> recipes;
     // Index recipes by base potion for faster lookups
     private final Map<Material, List<BrewingRecipe>> recipesByBase;
+    // Index recipes by plain result name for potions brewed before they were tagged
+    private final Map<String, BrewingRecipe> recipesByName;
+    // Recipe id -> index, kept across reloads so per-recipe arrays stay valid
+    private final Map<String, Integer> recipeIndices;
+    private final NamespacedKey recipeKey;
+    private final NamespacedKey versionKey;
 
     public RecipeManager(BrewMasters plugin) {
         this.plugin = plugin;
         this.recipes = new HashMap<>();
         this.recipesByBase = new HashMap<>();
+        this.recipesByName = new HashMap<>();
+        this.recipeIndices = new HashMap<>();
+        this.recipeKey = new NamespacedKey(plugin, "recipe_id");
+        this.versionKey = new NamespacedKey(plugin, "recipe_version");
     }
 
     public void loadRecipes() {
         recipes.clear();
         recipesByBase.clear();
+        recipesByName.clear();
 
         ConfigurationSection recipesSection = plugin.getConfig().getConfigurationSection("recipes");
         if (recipesSection == null) {
@@ -44,6 +65,7 @@ public class RecipeManager {
                     recipes.put(recipeId, recipe);
                     // Index by base potion
                     recipesByBase.computeIfAbsent(recipe.getBasePotion(), k -> new ArrayList<>()).add(recipe);
+                    indexByName(recipe);
                     plugin.getLogger().info("Loaded recipe: " + recipeId);
                 }
             } catch (Exception e) {
@@ -53,6 +75,19 @@ public class RecipeManager {
         }
     }
 
+    private void indexByName(BrewingRecipe recipe) {
+        if (recipe.getResultName() == null || recipe.getResultName().isEmpty()) {
+            return;
+        }
+
+        String name = TextUtils.toPlain(TextUtils.parseAuto(recipe.getResultName()));
+        BrewingRecipe existing = recipesByName.putIfAbsent(name, recipe);
+        if (existing != null) {
+            plugin.getLogger().warning("Recipes '" + existing.getId() + "' and '" + recipe.getId()
+                    + "' share the result name '" + name + "'; untagged potions will match '" + existing.getId() + "'");
+        }
+    }
+
     private BrewingRecipe loadRecipe(String id, ConfigurationSection section) {
         if (section == null) {
             return null;
@@ -77,6 +112,7 @@ public class RecipeManager {
         }
 
         BrewingRecipe.Builder builder = new BrewingRecipe.Builder(id)
+                .index(recipeIndices.computeIfAbsent(id, k -> recipeIndices.size()))
                 .basePotion(basePotion)
                 .ingredient(ingredient);
 
@@ -145,6 +181,21 @@ public class RecipeManager {
         if (section.contains("expire-commands")) {
             builder.expireCommands(section.getStringList("expire-commands"));
         }
+        
+        // Parse drink cooldown
+        if (section.contains("drink-cooldown")) {
+            builder.drinkCooldown(section.getInt("drink-cooldown"));
+        }
+        
+        // Parse periodic effects
+        if (section.contains("periodic-effects")) {
+            for (Map<?, ?> periodicMap : section.getMapList("periodic-effects")) {
+                PeriodicEffect periodicEffect = parsePeriodicEffect(id, periodicMap);
+                if (periodicEffect != null) {
+                    builder.addPeriodicEffect(periodicEffect);
+                }
+            }
+        }
 
         // Parse conditions
         if (section.contains("conditions")) {
@@ -275,6 +326,30 @@ public class RecipeManager {
         return new PotionEffect(type, duration, amplifier);
     }
 
+    private PeriodicEffect parsePeriodicEffect(String recipeId, Map<?, ?> periodicMap) {
+        Object interval = periodicMap.get("interval");
+        if (!(interval instanceof Number) || ((Number) interval).intValue() <= 0) {
+            plugin.getLogger().warning("Periodic effect in recipe '" + recipeId + "' needs a positive interval (in ticks)");
+            return null;
+        }
+
+        double heal = periodicMap.get("heal") instanceof Number ? ((Number) periodicMap.get("heal")).doubleValue() : 0;
+
+        List<String> commands = new ArrayList<>();
+        if (periodicMap.get("commands") instanceof List) {
+            for (Object command : (List<?>) periodicMap.get("commands")) {
+                commands.add(String.valueOf(command));
+            }
+        }
+
+        if (heal <= 0 && commands.isEmpty()) {
+            plugin.getLogger().warning("Periodic effect in recipe '" + recipeId + "' has neither heal nor commands");
+            return null;
+        }
+
+        return new PeriodicEffect(((Number) interval).intValue(), heal, commands);
+    }
+
     public BrewingRecipe findRecipe(Material basePotion, Material ingredient) {
         // Use indexed lookup for O(1) base potion matching
         List<BrewingRecipe> candidates = recipesByBase.get(basePotion);
@@ -311,6 +386,77 @@ public class RecipeManager {
         return null;
     }
 
+    /**
+     * Create the result potion of a recipe, tagged with the recipe id
+     * @param recipe The brewed recipe
+     * @return The tagged potion
+     */
+    public ItemStack createBrewedPotion(BrewingRecipe recipe) {
+        ItemStack potion = recipe.createResultPotion();
+        ItemMeta meta = potion.getItemMeta();
+        if (meta != null) {
+            writeTag(meta.getPersistentDataContainer(), recipe);
+            potion.setItemMeta(meta);
+        }
+        return potion;
+    }
+
+    /**
+     * Tag a lingering cloud with the recipe of the potion that created it
+     * @param cloud The cloud
+     * @param recipe The thrown recipe
+     */
+    public void tagCloud(AreaEffectCloud cloud, BrewingRecipe recipe) {
+        writeTag(cloud.getPersistentDataContainer(), recipe);
+    }
+
+    /**
+     * Find the recipe a lingering cloud was created from
+     * @param cloud The cloud
+     * @return The recipe, or null if the cloud is not from a custom brew
+     */
+    public BrewingRecipe findRecipe(AreaEffectCloud cloud) {
+        return readTag(cloud.getPersistentDataContainer());
+    }
+
+    private void writeTag(PersistentDataContainer container, BrewingRecipe recipe) {
+        container.set(recipeKey, PersistentDataType.STRING, recipe.getId());
+        container.set(versionKey, PersistentDataType.INTEGER, TAG_VERSION);
+    }
+
+    private BrewingRecipe readTag(PersistentDataContainer container) {
+        String recipeId = container.get(recipeKey, PersistentDataType.STRING);
+        if (recipeId == null) {
+            return null;
+        }
+        Integer version = container.get(versionKey, PersistentDataType.INTEGER);
+        return version != null && version <= TAG_VERSION ? recipes.get(recipeId) : null;
+    }
+
+    /**
+     * Find the recipe a potion was brewed from
+     * Uses the recipe tag when present, otherwise falls back to the result name
+     * @param item The potion
+     * @return The recipe, or null if the potion is not a custom brew
+     */
+    public BrewingRecipe findRecipe(ItemStack item) {
+        ItemMeta meta = item.getItemMeta();
+        if (meta == null) {
+            return null;
+        }
+
+        PersistentDataContainer container = meta.getPersistentDataContainer();
+        if (container.has(recipeKey, PersistentDataType.STRING)) {
+            // A tagged potion whose recipe was removed is no longer a custom brew
+            return readTag(container);
+        }
+
+        if (!meta.hasDisplayName()) {
+            return null;
+        }
+        return recipesByName.get(TextUtils.toPlain(meta.displayName()));
+    }
+
     public BrewingRecipe getRecipe(String recipeId) {
         return recipes.get(recipeId);
     }
@@ -319,6 +465,13 @@ public class RecipeManager {
         return recipes.values();
     }
 
+    /**
+     * Get the number of recipe indices handed out so far (including recipes removed by a reload)
+     */
+    public int getRecipeIndexCount() {
+        return recipeIndices.size();
+    }
+
     public int getRecipeCount() {
         return recipes.size();
     }
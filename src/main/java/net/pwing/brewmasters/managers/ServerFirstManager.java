@@ -0,0 +1,379 @@
+package net.pwing.brewmasters.managers;
+
+import net.kyori.adventure.text.Component;
+import net.pwing.brewmasters.BrewMasters;
+import net.pwing.brewmasters.models.Achievement;
+import net.pwing.brewmasters.models.BrewingRecipe;
+import net.pwing.brewmasters.models.PlayerData;
+import net.pwing.brewmasters.utils.TextUtils;
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Player;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Records the first player on the server to discover each recipe and unlock each achievement
+ *
+ * Every known id gets a permanent slot in an {@link AtomicReferenceArray}; a
+ * player claims a slot with compare-and-set, so two simultaneous discoveries
+ * can never both win. Slots are only added when recipes and achievements are
+ * (re)loaded, never while claiming.
+ *
+ * Without a server-firsts.yml (first start after upgrading), the slots are
+ * seeded from existing player data so recipes and achievements players
+ * already have are not announced again. Claims made while seeding is
+ * running are recorded without a broadcast.
+ */
+public class ServerFirstManager {
+
+    private final BrewMasters plugin;
+    private final File dataFile;
+    private final Map<Kind, Registry> registries = new EnumMap<>(Kind.class);
+    private boolean broadcastEnabled;
+    private String recipeMessage;
+    private String achievementMessage;
+    private volatile boolean seeding;
+    private final AtomicBoolean savePending = new AtomicBoolean();
+
+    public ServerFirstManager(BrewMasters plugin) {
+        this.plugin = plugin;
+        this.dataFile = new File(plugin.getDataFolder(), "server-firsts.yml");
+        for (Kind kind : Kind.values()) {
+            registries.put(kind, new Registry());
+        }
+        loadSettings();
+        if (dataFile.exists()) {
+            load();
+        } else {
+            seedFromPlayerData();
+        }
+    }
+
+    /**
+     * Load broadcast settings from config
+     */
+    public void loadSettings() {
+        broadcastEnabled = plugin.getConfig().getBoolean("server-firsts.broadcast", true);
+        recipeMessage = plugin.getConfig().getString("server-firsts.recipe-message",
+                "<gold>⭐ <yellow><player></yellow> is the first on the server to discover <aqua><name></aqua>!");
+        achievementMessage = plugin.getConfig().getString("server-firsts.achievement-message",
+                "<gold>⭐ <yellow><player></yellow> is the first on the server to unlock <aqua><name></aqua>!");
+    }
+
+    /**
+     * Give every loaded recipe and achievement a slot, call after (re)loading them
+     */
+    public void registerAll() {
+        Registry recipes = registries.get(Kind.RECIPE);
+        for (BrewingRecipe recipe : plugin.getRecipeManager().getAllRecipes()) {
+            recipes.indexOf(recipe.getId());
+        }
+
+        Registry achievements = registries.get(Kind.ACHIEVEMENT);
+        for (Achievement achievement : plugin.getAchievementManager().getAllAchievements()) {
+            achievements.indexOf(achievement.getId());
+        }
+    }
+
+    /**
+     * Try to become the first player to discover a recipe
+     * @return true if the player is the server first
+     */
+    public boolean claimRecipe(Player player, BrewingRecipe recipe) {
+        String name = recipe.getResultName() != null ? TextUtils.stripColor(recipe.getResultName()) : recipe.getId();
+        return claim(Kind.RECIPE, recipe.getId(), player, recipeMessage, name);
+    }
+
+    /**
+     * Try to become the first player to unlock an achievement
+     * @return true if the player is the server first
+     */
+    public boolean claimAchievement(Player player, Achievement achievement) {
+        return claim(Kind.ACHIEVEMENT, achievement.getId(), player, achievementMessage,
+                TextUtils.stripColor(achievement.getName()));
+    }
+
+    private boolean claim(Kind kind, String id, Player player, String message, String name) {
+        Registry registry = registries.get(kind);
+        Integer index = registry.indices.get(id);
+        if (index == null) {
+            return false;
+        }
+
+        ServerFirst first = new ServerFirst(player.getUniqueId(), player.getName(), System.currentTimeMillis());
+        if (!registry.firsts.compareAndSet(index, null, first)) {
+            return false;
+        }
+
+        saveAsync();
+        if (broadcastEnabled && !seeding) {
+            broadcast(message.replace("<player>", player.getName()).replace("<name>", name));
+        }
+        return true;
+    }
+
+    /**
+     * Send one announcement to everyone, parsed once rather than per recipient
+     */
+    private void broadcast(String message) {
+        Component component = TextUtils.miniMessage(message);
+        if (!Bukkit.isPrimaryThread()) {
+            Bukkit.getScheduler().runTask(plugin, () -> send(component));
+        } else {
+            send(component);
+        }
+    }
+
+    private static void send(Component component) {
+        for (Player online : Bukkit.getOnlinePlayers()) {
+            online.sendMessage(component);
+        }
+        Bukkit.getConsoleSender().sendMessage(component);
+    }
+
+    /**
+     * Get the first player to discover a recipe
+     * @return The server first, or null if nobody has discovered it yet
+     */
+    public ServerFirst getRecipeFirst(String recipeId) {
+        return getFirst(Kind.RECIPE, recipeId);
+    }
+
+    /**
+     * Get the first player to unlock an achievement
+     * @return The server first, or null if nobody has unlocked it yet
+     */
+    public ServerFirst getAchievementFirst(String achievementId) {
+        return getFirst(Kind.ACHIEVEMENT, achievementId);
+    }
+
+    private ServerFirst getFirst(Kind kind, String id) {
+        Registry registry = registries.get(kind);
+        Integer index = registry.indices.get(id);
+        return index != null ? registry.firsts.get(index) : null;
+    }
+
+    /**
+     * Mark everything players already discovered or unlocked as claimed, without broadcasting
+     *
+     * Discovery times are not saved in player data, so the claim goes to the
+     * player who joined first and its time is unknown (0).
+     */
+    private void seedFromPlayerData() {
+        File playerDataFolder = new File(plugin.getDataFolder(), "playerdata");
+        File[] files = playerDataFolder.listFiles((dir, name) -> name.endsWith(".yml"));
+        if (files == null || files.length == 0) {
+            return;
+        }
+
+        seeding = true;
+        plugin.getLogger().info("Building server firsts from " + files.length + " player files...");
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            List<PlayerData> loaded = new ArrayList<>();
+            for (File file : files) {
+                try {
+                    loaded.add(PlayerData.fromConfig(YamlConfiguration.loadConfiguration(file)));
+                } catch (Exception e) {
+                    plugin.getLogger().warning("Skipping " + file.getName() + " for server firsts: " + e.getMessage());
+                }
+            }
+            // Earliest players first, so they keep each claim
+            loaded.sort((a, b) -> Long.compare(a.getFirstJoined(), b.getFirstJoined()));
+
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                Registry recipes = registries.get(Kind.RECIPE);
+                Registry achievements = registries.get(Kind.ACHIEVEMENT);
+                Map<String, ServerFirst> recipeSeeds = new HashMap<>();
+                Map<String, ServerFirst> achievementSeeds = new HashMap<>();
+                for (PlayerData data : loaded) {
+                    OfflinePlayer offlinePlayer = Bukkit.getOfflinePlayer(data.getPlayerId());
+                    String name = offlinePlayer.getName() != null ? offlinePlayer.getName()
+                            : data.getPlayerId().toString();
+                    ServerFirst first = new ServerFirst(data.getPlayerId(), name, 0L);
+                    for (String recipeId : data.getDiscoveredRecipes()) {
+                        recipeSeeds.putIfAbsent(recipeId, first);
+                    }
+                    for (String achievementId : data.getAchievements()) {
+                        achievementSeeds.putIfAbsent(achievementId, first);
+                    }
+                }
+
+                // Player files hold earlier discoveries than anything claimed while seeding
+                for (Map.Entry<String, ServerFirst> entry : recipeSeeds.entrySet()) {
+                    recipes.firsts.set(recipes.indexOf(entry.getKey()), entry.getValue());
+                }
+                for (Map.Entry<String, ServerFirst> entry : achievementSeeds.entrySet()) {
+                    achievements.firsts.set(achievements.indexOf(entry.getKey()), entry.getValue());
+                }
+
+                seeding = false;
+                saveAsync();
+                plugin.getLogger().info("Server firsts built.");
+            });
+        });
+    }
+
+    private void load() {
+        if (!dataFile.exists()) {
+            return;
+        }
+
+        FileConfiguration config = YamlConfiguration.loadConfiguration(dataFile);
+        for (Kind kind : Kind.values()) {
+            ConfigurationSection section = config.getConfigurationSection(kind.getKey());
+            if (section == null) {
+                continue;
+            }
+
+            Registry registry = registries.get(kind);
+            for (String id : section.getKeys(false)) {
+                ConfigurationSection entry = section.getConfigurationSection(id);
+                if (entry == null) {
+                    continue;
+                }
+                try {
+                    ServerFirst first = new ServerFirst(UUID.fromString(entry.getString("player", "")),
+                            entry.getString("name", "Unknown"), entry.getLong("time"));
+                    registry.firsts.set(registry.indexOf(id), first);
+                } catch (IllegalArgumentException e) {
+                    plugin.getLogger().warning("Skipping invalid server first for " + id);
+                }
+            }
+        }
+    }
+
+    /**
+     * Save soon, claims made before the pending save runs share one write
+     */
+    private void saveAsync() {
+        if (savePending.compareAndSet(false, true)) {
+            Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+                savePending.set(false);
+                write();
+            });
+        }
+    }
+
+    /**
+     * Save the server firsts synchronously (on shutdown)
+     */
+    public void save() {
+        write();
+    }
+
+    private FileConfiguration toConfig() {
+        FileConfiguration config = new YamlConfiguration();
+        for (Kind kind : Kind.values()) {
+            Registry registry = registries.get(kind);
+            for (Map.Entry<String, Integer> entry : registry.indices.entrySet()) {
+                ServerFirst first = registry.firsts.get(entry.getValue());
+                if (first != null) {
+                    String path = kind.getKey() + "." + entry.getKey();
+                    config.set(path + ".player", first.getPlayerId().toString());
+                    config.set(path + ".name", first.getPlayerName());
+                    config.set(path + ".time", first.getTime());
+                }
+            }
+        }
+        return config;
+    }
+
+    private void write() {
+        synchronized (dataFile) {
+            // Snapshot under the lock, so whichever write runs last saves the latest claims
+            try {
+                toConfig().save(dataFile);
+            } catch (IOException e) {
+                plugin.getLogger().severe("Failed to save server firsts: " + e.getMessage());
+            }
+        }
+    }
+
+    private enum Kind {
+        RECIPE("recipes"),
+        ACHIEVEMENT("achievements");
+
+        private final String key;
+
+        Kind(String key) {
+            this.key = key;
+        }
+
+        private String getKey() {
+            return key;
+        }
+    }
+
+    /**
+     * Permanent id to slot mapping plus the slots themselves
+     */
+    private static final class Registry {
+        private final Map<String, Integer> indices = new ConcurrentHashMap<>();
+        private volatile AtomicReferenceArray<ServerFirst> firsts = new AtomicReferenceArray<>(16);
+
+        /**
+         * Get the slot of an id, adding one if needed (only while loading)
+         */
+        private synchronized int indexOf(String id) {
+            Integer existing = indices.get(id);
+            if (existing != null) {
+                return existing;
+            }
+
+            int index = indices.size();
+            if (index >= firsts.length()) {
+                AtomicReferenceArray<ServerFirst> grown = new AtomicReferenceArray<>(firsts.length() * 2);
+                for (int i = 0; i < firsts.length(); i++) {
+                    grown.set(i, firsts.get(i));
+                }
+                firsts = grown;
+            }
+            indices.put(id, index);
+            return index;
+        }
+    }
+
+    /**
+     * The first player to reach something
+     */
+    public static final class ServerFirst {
+        private final UUID playerId;
+        private final String playerName;
+        private final long time;
+
+        private ServerFirst(UUID playerId, String playerName, long time) {
+            this.playerId = playerId;
+            this.playerName = playerName;
+            this.time = time;
+        }
+
+        public UUID getPlayerId() {
+            return playerId;
+        }
+
+        public String getPlayerName() {
+            return playerName;
+        }
+
+        /**
+         * Get when it happened (epoch millis), or 0 if unknown because it was seeded from player data
+         */
+        public long getTime() {
+            return time;
+        }
+    }
+}
@@ -20,6 +20,7 @@ public class Achievement {
     private final int targetValue;
     private final String targetRecipe;
     private final List<String> targetRecipes;
+    private final int window;
     private final Material icon;
     private final AchievementReward reward;
     private final boolean hidden;
@@ -34,6 +35,7 @@ public class Achievement {
         this.targetValue = builder.targetValue;
         this.targetRecipe = builder.targetRecipe;
         this.targetRecipes = builder.targetRecipes;
+        this.window = builder.window;
         this.icon = builder.icon;
         this.reward = builder.reward;
         this.hidden = builder.hidden;
@@ -76,6 +78,13 @@ public class Achievement {
         return targetRecipes;
     }
 
+    /**
+     * Get the time window for POTIONS_BREWED_WITHIN, in seconds
+     */
+    public int getWindow() {
+        return window;
+    }
+
     public Material getIcon() {
         return icon;
     }
@@ -111,7 +120,10 @@ public class Achievement {
         FIRST_DISCOVERY, // First recipe discovery
         MASTER_BREWER, // Discover all recipes
         CHAINS_COMPLETED, // Complete X brewing chains
-        FIRST_CHAIN // First chain completion
+        FIRST_CHAIN, // First chain completion
+        POTIONS_BREWED_WITHIN, // Brew X potions within a time window
+        BREWING_STREAK, // Brew on X consecutive days
+        SESSION_DISCOVERIES // Discover X recipes in one session
     }
 
     /**
@@ -144,7 +156,8 @@ public class Achievement {
         // Parse target values
         builder.targetValue(section.getInt("target-value", 1))
                 .targetRecipe(section.getString("target-recipe"))
-                .targetRecipes(section.getStringList("target-recipes"));
+                .targetRecipes(section.getStringList("target-recipes"))
+                .window(section.getInt("window", 3600));
 
         // Parse icon
         String iconStr = section.getString("icon", "BREWING_STAND");
@@ -173,6 +186,7 @@ public class Achievement {
         private int targetValue = 1;
         private String targetRecipe;
         private List<String> targetRecipes = new ArrayList<>();
+        private int window = 3600;
         private Material icon = Material.BREWING_STAND;
         private AchievementReward reward;
         private boolean hidden = false;
@@ -222,6 +236,11 @@ public class Achievement {
             return this;
         }
 
+        public Builder window(int window) {
+            this.window = window;
+            return this;
+        }
+
         public Builder icon(Material icon) {
             this.icon = icon;
             return this;
@@ -1,5 +1,8 @@
 package net.pwing.brewmasters.models;
 
+import net.pwing.brewmasters.managers.CommandManager;
+import net.pwing.brewmasters.utils.CommandContext;
+import net.pwing.brewmasters.utils.CommandTemplate;
 import org.bukkit.Material;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.entity.Player;
@@ -17,6 +20,7 @@ public class AchievementReward {
     private final RewardType type;
     private final List<ItemStack> items;
     private final List<String> commands;
+    private final List<CommandTemplate> commandTemplates;
     private final int experience;
     private final String permission;
     private final String message;
@@ -25,6 +29,7 @@ public class AchievementReward {
         this.type = builder.type;
         this.items = builder.items;
         this.commands = builder.commands;
+        this.commandTemplates = CommandTemplate.compileAll(builder.commands);
         this.experience = builder.experience;
         this.permission = builder.permission;
         this.message = builder.message;
@@ -32,14 +37,17 @@ public class AchievementReward {
 
     /**
      * Give the reward to a player
+     *
+     * @param commandManager Runs the reward commands
+     * @param context Placeholder values for the reward commands
      */
-    public void giveReward(Player player) {
+    public void giveReward(Player player, CommandManager commandManager, CommandContext context) {
         switch (type) {
             case ITEMS:
                 giveItems(player);
                 break;
             case COMMANDS:
-                executeCommands(player);
+                commandManager.dispatch(commandTemplates, context, CommandManager.Trigger.ACHIEVEMENT_REWARD);
                 break;
             case EXPERIENCE:
                 giveExperience(player);
@@ -49,7 +57,7 @@ public class AchievementReward {
                 break;
             case COMBINED:
                 giveItems(player);
-                executeCommands(player);
+                commandManager.dispatch(commandTemplates, context, CommandManager.Trigger.ACHIEVEMENT_REWARD);
                 giveExperience(player);
                 break;
         }
@@ -69,13 +77,6 @@ public class AchievementReward {
         }
     }
 
-    private void executeCommands(Player player) {
-        for (String command : commands) {
-            String processedCommand = command.replace("{player}", player.getName());
-            player.getServer().dispatchCommand(player.getServer().getConsoleSender(), processedCommand);
-        }
-    }
-
     private void giveExperience(Player player) {
         if (experience > 0) {
             player.giveExp(experience);
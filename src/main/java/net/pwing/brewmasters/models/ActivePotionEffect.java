@@ -1,5 +1,6 @@
 package net.pwing.brewmasters.models;
 
+import net.pwing.brewmasters.utils.CommandTemplate;
 import org.bukkit.configuration.ConfigurationSection;
 
 import java.util.ArrayList;
@@ -18,15 +19,28 @@ public class ActivePotionEffect {
     private final long startTime;
     private final long duration; // in milliseconds
     private final List<String> expireCommands;
+    private final List<CommandTemplate> expireCommandTemplates;
     private boolean hasExpired;
     
-    public ActivePotionEffect(UUID playerId, String recipeId, String effectName, long duration, List<String> expireCommands) {
+    /**
+     * Create an effect starting now
+     * @param expireCommands The recipe's expire commands, shared and not modified
+     * @param expireCommandTemplates The same commands compiled by the recipe at load time
+     */
+    public ActivePotionEffect(UUID playerId, String recipeId, String effectName, long duration,
+                              List<String> expireCommands, List<CommandTemplate> expireCommandTemplates) {
+        this(playerId, recipeId, effectName, System.currentTimeMillis(), duration, expireCommands, expireCommandTemplates);
+    }
+    
+    private ActivePotionEffect(UUID playerId, String recipeId, String effectName, long startTime, long duration,
+                               List<String> expireCommands, List<CommandTemplate> expireCommandTemplates) {
         this.playerId = playerId;
         this.recipeId = recipeId;
         this.effectName = effectName;
-        this.startTime = System.currentTimeMillis();
+        this.startTime = startTime;
         this.duration = duration;
-        this.expireCommands = expireCommands != null ? new ArrayList<>(expireCommands) : new ArrayList<>();
+        this.expireCommands = expireCommands;
+        this.expireCommandTemplates = expireCommandTemplates;
         this.hasExpired = false;
     }
     
@@ -41,8 +55,10 @@ public class ActivePotionEffect {
         List<String> expireCommands = section.getStringList("expire-commands");
         boolean hasExpired = section.getBoolean("has-expired", false);
         
-        ActivePotionEffect effect = new ActivePotionEffect(playerId, recipeId, effectName, duration, expireCommands);
-        // Restore original start time
+        // Restore original start time so offline time counts towards expiry
+        ActivePotionEffect effect = new ActivePotionEffect(playerId, recipeId, effectName, startTime, duration,
+                expireCommands, CommandTemplate.compileAll(expireCommands));
+        effect.hasExpired = hasExpired;
         return effect;
     }
     
@@ -67,6 +83,13 @@ public class ActivePotionEffect {
         return elapsed >= duration;
     }
     
+    /**
+     * Get the wall-clock time (epoch millis) at which this effect expires
+     */
+    public long getExpiryTime() {
+        return startTime + duration;
+    }
+    
     /**
      * Get time remaining in milliseconds
      */
@@ -126,6 +149,10 @@ public class ActivePotionEffect {
         return new ArrayList<>(expireCommands);
     }
     
+    public List<CommandTemplate> getExpireCommandTemplates() {
+        return expireCommandTemplates;
+    }
+    
     public boolean hasExpired() {
         return hasExpired;
     }
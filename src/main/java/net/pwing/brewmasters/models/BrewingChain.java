@@ -1,29 +1,189 @@
 package net.pwing.brewmasters.models;
 
+import net.pwing.brewmasters.utils.CommandTemplate;
 import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.MemoryConfiguration;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
 
 /**
- * Represents a multi-step brewing chain where recipes must be completed in sequence
+ * Represents a multi-step brewing chain
+ *
+ * Steps form a directed acyclic graph: a step can require other steps (all of
+ * them) and/or any one of a set of alternatives. Chains without explicit
+ * requirements are a simple sequence when requires-order is set, or a set of
+ * independent steps otherwise. Steps are validated and topologically sorted at
+ * load. A chain is completed once every final step (one no other step builds
+ * on) is completed.
  */
 public class BrewingChain {
 
     private final String id;
     private final String name;
     private final String description;
-    private final List<ChainStep> steps;
+    private final List<ChainStep> steps; // Topologically sorted
     private final boolean requiresOrder;
     private final ChainReward completionReward;
+    private final int[][] requires; // step -> steps that must all be completed
+    private final int[][] requiresAny; // step -> steps of which one must be completed (empty for none)
+    private final int[][] dependents; // step -> steps that require it
+    private final long[] finalSteps; // Bitmask of steps that no other step requires
+    private final Map<String, int[]> stepsByRecipe; // recipe ID -> indices of its steps
 
     private BrewingChain(Builder builder) {
         this.id = builder.id;
         this.name = builder.name;
         this.description = builder.description;
-        this.steps = builder.steps;
         this.requiresOrder = builder.requiresOrder;
         this.completionReward = builder.completionReward;
+
+        List<ChainStep> configSteps = builder.steps;
+        int count = configSteps.size();
+
+        boolean explicit = false;
+        for (ChainStep step : configSteps) {
+            explicit |= !step.getRequires().isEmpty() || !step.getRequiresAny().isEmpty();
+        }
+
+        // Resolve step IDs (only needed when steps name their requirements)
+        Map<String, Integer> configIndex = new HashMap<>();
+        for (int i = 0; explicit && i < count; i++) {
+            if (configIndex.put(configSteps.get(i).getId(), i) != null) {
+                throw new IllegalStateException("Duplicate step id '" + configSteps.get(i).getId()
+                        + "' in chain " + id);
+            }
+        }
+
+        int[][] configRequires = new int[count][];
+        int[][] configRequiresAny = new int[count][];
+        for (int i = 0; i < count; i++) {
+            ChainStep step = configSteps.get(i);
+            if (explicit) {
+                configRequires[i] = resolve(configIndex, step, step.getRequires());
+                configRequiresAny[i] = resolve(configIndex, step, step.getRequiresAny());
+            } else {
+                // Implicit: ordered chains require the previous step, unordered chains nothing
+                configRequires[i] = requiresOrder && i > 0 ? new int[] {i - 1} : new int[0];
+                configRequiresAny[i] = new int[0];
+            }
+        }
+
+        // Topological sort, keeping config order where the requirements allow it
+        int[] order = topologicalOrder(configRequires, configRequiresAny);
+        int[] newIndex = new int[count];
+        for (int i = 0; i < count; i++) {
+            newIndex[order[i]] = i;
+        }
+
+        this.steps = new ArrayList<>(count);
+        this.requires = new int[count][];
+        this.requiresAny = new int[count][];
+        for (int i = 0; i < count; i++) {
+            steps.add(configSteps.get(order[i]));
+            requires[i] = remap(configRequires[order[i]], newIndex);
+            requiresAny[i] = remap(configRequiresAny[order[i]], newIndex);
+        }
+
+        // Reverse edges and final steps
+        List<List<Integer>> dependentLists = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            dependentLists.add(new ArrayList<>());
+        }
+        for (int i = 0; i < count; i++) {
+            for (int required : requires[i]) {
+                dependentLists.get(required).add(i);
+            }
+            for (int alternative : requiresAny[i]) {
+                dependentLists.get(alternative).add(i);
+            }
+        }
+        this.dependents = new int[count][];
+        this.finalSteps = new long[(count + 63) >>> 6];
+        for (int i = 0; i < count; i++) {
+            dependents[i] = dependentLists.get(i).stream().mapToInt(Integer::intValue).distinct().toArray();
+            if (dependents[i].length == 0) {
+                finalSteps[i >>> 6] |= 1L << i;
+            }
+        }
+
+        this.stepsByRecipe = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            int[] indices = stepsByRecipe.get(steps.get(i).getRecipeId());
+            indices = indices == null ? new int[] {i} : Arrays.copyOf(indices, indices.length + 1);
+            indices[indices.length - 1] = i;
+            stepsByRecipe.put(steps.get(i).getRecipeId(), indices);
+        }
+    }
+
+    private int[] resolve(Map<String, Integer> configIndex, ChainStep step, List<String> stepIds) {
+        int[] resolved = new int[stepIds.size()];
+        for (int i = 0; i < resolved.length; i++) {
+            Integer index = configIndex.get(stepIds.get(i));
+            if (index == null) {
+                throw new IllegalStateException("Step '" + step.getId() + "' in chain " + id
+                        + " requires unknown step '" + stepIds.get(i) + "'");
+            }
+            resolved[i] = index;
+        }
+        return resolved;
+    }
+
+    private int[] topologicalOrder(int[][] configRequires, int[][] configRequiresAny) {
+        int count = configRequires.length;
+        int[] inDegree = new int[count];
+        List<List<Integer>> edges = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            edges.add(new ArrayList<>());
+        }
+        for (int i = 0; i < count; i++) {
+            for (int required : configRequires[i]) {
+                edges.get(required).add(i);
+                inDegree[i]++;
+            }
+            for (int alternative : configRequiresAny[i]) {
+                edges.get(alternative).add(i);
+                inDegree[i]++;
+            }
+        }
+
+        PriorityQueue<Integer> ready = new PriorityQueue<>();
+        for (int i = 0; i < count; i++) {
+            if (inDegree[i] == 0) {
+                ready.add(i);
+            }
+        }
+
+        int[] order = new int[count];
+        int sorted = 0;
+        while (!ready.isEmpty()) {
+            int step = ready.poll();
+            order[sorted++] = step;
+            for (int dependent : edges.get(step)) {
+                if (--inDegree[dependent] == 0) {
+                    ready.add(dependent);
+                }
+            }
+        }
+
+        if (sorted < count) {
+            throw new IllegalStateException("Steps of chain " + id + " require each other in a cycle");
+        }
+        return order;
+    }
+
+    private static int[] remap(int[] indices, int[] newIndex) {
+        int[] remapped = new int[indices.length];
+        for (int i = 0; i < indices.length; i++) {
+            remapped[i] = newIndex[indices[i]];
+        }
+        return remapped;
     }
 
     public String getId() {
@@ -38,6 +198,9 @@ public class BrewingChain {
         return description;
     }
 
+    /**
+     * Get the steps, sorted so every step comes after the steps it requires
+     */
     public List<ChainStep> getSteps() {
         return steps;
     }
@@ -51,33 +214,124 @@ public class BrewingChain {
     }
 
     /**
-     * Get the next step in the chain for a player
+     * Get the next step in the chain for a player (the first step that can be brewed)
      */
-    public ChainStep getNextStep(List<String> completedRecipes) {
-        if (requiresOrder) {
-            // Must complete steps in order
-            for (ChainStep step : steps) {
-                if (!completedRecipes.contains(step.getRecipeId())) {
-                    return step;
-                }
+    public ChainStep getNextStep(ChainProgress progress) {
+        ensureFrontier(progress);
+        int step = progress.firstAvailable();
+        return step >= 0 ? steps.get(step) : null; // null when nothing is left to brew
+    }
+
+    /**
+     * Find the step that brewing a recipe completes
+     * @return The step index, or -1 if brewing the recipe does not complete a step
+     */
+    public int findStep(ChainProgress progress, String recipeId) {
+        int[] indices = stepsByRecipe.get(recipeId);
+        if (indices == null) {
+            return -1;
+        }
+
+        ensureFrontier(progress);
+        for (int index : indices) {
+            if (progress.isAvailable(index)) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Complete a step and add the steps it unlocks to the frontier
+     *
+     * Alternatives of an unlocked requires-any step leave the frontier once
+     * every step they could unlock is unlocked, so an unused branch is not
+     * brewed for progress.
+     */
+    public void completeStep(ChainProgress progress, int step) {
+        ensureFrontier(progress);
+        progress.complete(step);
+        for (int dependent : dependents[step]) {
+            if (!progress.isComplete(dependent) && isUnlocked(progress, dependent)
+                    && !isUnused(progress, dependent)) {
+                progress.makeAvailable(dependent);
             }
-        } else {
-            // Can complete steps in any order
-            for (ChainStep step : steps) {
-                if (!completedRecipes.contains(step.getRecipeId())) {
-                    return step;
+            for (int alternative : requiresAny[dependent]) {
+                if (progress.isAvailable(alternative) && isUnused(progress, alternative)) {
+                    progress.makeUnavailable(alternative);
                 }
             }
         }
-        return null; // Chain completed
+    }
+
+    /**
+     * Check if a step is completed or can be brewed now
+     */
+    public boolean isStepUnlocked(ChainProgress progress, int step) {
+        ensureFrontier(progress);
+        return progress.isComplete(step) || progress.isAvailable(step);
     }
 
     /**
      * Check if the chain is completed
      */
-    public boolean isCompleted(List<String> completedRecipes) {
-        for (ChainStep step : steps) {
-            if (!completedRecipes.contains(step.getRecipeId())) {
+    public boolean isCompleted(ChainProgress progress) {
+        ensureFrontier(progress);
+        return progress.containsAll(finalSteps);
+    }
+
+    /**
+     * Get completion progress (0.0 to 1.0)
+     */
+    public double getProgress(ChainProgress progress) {
+        ensureFrontier(progress);
+        if (steps.isEmpty() || isCompleted(progress)) {
+            return 1.0;
+        }
+
+        return Math.min(1.0, (double) progress.getCount() / steps.size());
+    }
+
+    /**
+     * Convert progress saved as completed recipe IDs to step progress
+     */
+    public ChainProgress toProgress(List<String> completedRecipes) {
+        ChainProgress progress = new ChainProgress();
+        for (int i = 0; i < steps.size(); i++) {
+            if (completedRecipes.contains(steps.get(i).getRecipeId())) {
+                progress.complete(i);
+            }
+        }
+        ensureFrontier(progress);
+        return progress;
+    }
+
+    private boolean isUnlocked(ChainProgress progress, int step) {
+        for (int required : requires[step]) {
+            if (!progress.isComplete(required)) {
+                return false;
+            }
+        }
+        if (requiresAny[step].length == 0) {
+            return true;
+        }
+        for (int alternative : requiresAny[step]) {
+            if (progress.isComplete(alternative)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Check if a step that is not completed can no longer unlock anything
+     */
+    private boolean isUnused(ChainProgress progress, int step) {
+        if (dependents[step].length == 0) {
+            return false; // Final steps are always needed
+        }
+        for (int dependent : dependents[step]) {
+            if (!progress.isComplete(dependent) && !isUnlocked(progress, dependent)) {
                 return false;
             }
         }
@@ -85,21 +339,47 @@ public class BrewingChain {
     }
 
     /**
-     * Get completion progress (0.0 to 1.0)
+     * Compute the frontier from the completed steps, once per progress and chain instance
+     *
+     * Progress saved or computed for other steps (steps added, removed or
+     * reordered since) is first moved to the steps with the same IDs.
      */
-    public double getProgress(List<String> completedRecipes) {
-        if (steps.isEmpty()) {
-            return 1.0;
+    private void ensureFrontier(ChainProgress progress) {
+        if (progress.getFrontierChain() == this) {
+            return;
+        }
+
+        List<String> stepIds = progress.getCompletedStepIds();
+        if (stepIds != null && !matchesSteps(progress, stepIds)) {
+            Set<String> completedIds = new HashSet<>(stepIds);
+            progress.resetCompleted();
+            for (int i = 0; i < steps.size(); i++) {
+                if (completedIds.contains(steps.get(i).getId())) {
+                    progress.complete(i);
+                }
+            }
         }
 
-        int completed = 0;
-        for (ChainStep step : steps) {
-            if (completedRecipes.contains(step.getRecipeId())) {
-                completed++;
+        progress.resetFrontier(this);
+        for (int i = 0; i < steps.size(); i++) {
+            if (!progress.isComplete(i) && isUnlocked(progress, i) && !isUnused(progress, i)) {
+                progress.makeAvailable(i);
             }
         }
+    }
 
-        return (double) completed / steps.size();
+    /**
+     * Check if the completed steps of progress are the steps with the given IDs, in order
+     */
+    private boolean matchesSteps(ChainProgress progress, List<String> stepIds) {
+        int step = -1;
+        for (String stepId : stepIds) {
+            step = progress.nextComplete(step + 1);
+            if (step < 0 || step >= steps.size() || !steps.get(step).getId().equals(stepId)) {
+                return false;
+            }
+        }
+        return progress.nextComplete(step + 1) < 0;
     }
 
     /**
@@ -127,6 +407,11 @@ public class BrewingChain {
             List<?> stepsList = section.getList("steps");
             if (stepsList != null) {
                 for (Object stepObj : stepsList) {
+                    if (stepObj instanceof Map) {
+                        // YAML lists hold maps rather than sections
+                        stepObj = new MemoryConfiguration().createSection("step", (Map<?, ?>) stepObj);
+                    }
+
                     if (stepObj instanceof ConfigurationSection) {
                         ConfigurationSection stepSection = (ConfigurationSection) stepObj;
                         ChainStep step = ChainStep.fromConfig(stepSection);
@@ -155,20 +440,52 @@ public class BrewingChain {
      * Represents a single step in a brewing chain
      */
     public static class ChainStep {
+        private final String id;
         private final String recipeId;
         private final String description;
         private final ChainReward stepReward;
+        private final List<String> requires;
+        private final List<String> requiresAny;
 
         public ChainStep(String recipeId, String description, ChainReward stepReward) {
+            this(recipeId, recipeId, description, stepReward, null, null);
+        }
+
+        public ChainStep(String id, String recipeId, String description, ChainReward stepReward,
+                         List<String> requires, List<String> requiresAny) {
+            this.id = id != null ? id : recipeId;
             this.recipeId = recipeId;
             this.description = description;
             this.stepReward = stepReward;
+            this.requires = requires != null ? requires : new ArrayList<>();
+            this.requiresAny = requiresAny != null ? requiresAny : new ArrayList<>();
+        }
+
+        /**
+         * Get the step ID used by requirements (defaults to the recipe ID)
+         */
+        public String getId() {
+            return id;
         }
 
         public String getRecipeId() {
             return recipeId;
         }
 
+        /**
+         * Get the steps that must all be completed first
+         */
+        public List<String> getRequires() {
+            return requires;
+        }
+
+        /**
+         * Get the steps of which at least one must be completed first
+         */
+        public List<String> getRequiresAny() {
+            return requiresAny;
+        }
+
         public String getDescription() {
             return description;
         }
@@ -195,7 +512,8 @@ public class BrewingChain {
                 reward = ChainReward.fromConfig(rewardSection);
             }
 
-            return new ChainStep(recipeId, description, reward);
+            return new ChainStep(section.getString("id"), recipeId, description, reward,
+                    section.getStringList("requires"), section.getStringList("requires-any"));
         }
     }
 
@@ -205,11 +523,13 @@ public class BrewingChain {
     public static class ChainReward {
         private final int experience;
         private final List<String> commands;
+        private final List<CommandTemplate> commandTemplates;
         private final String message;
 
         public ChainReward(int experience, List<String> commands, String message) {
             this.experience = experience;
             this.commands = commands != null ? commands : new ArrayList<>();
+            this.commandTemplates = CommandTemplate.compileAll(this.commands);
             this.message = message;
         }
 
@@ -221,6 +541,10 @@ public class BrewingChain {
             return commands;
         }
 
+        public List<CommandTemplate> getCommandTemplates() {
+            return commandTemplates;
+        }
+
         public String getMessage() {
             return message;
         }
@@ -3,6 +3,7 @@ package net.pwing.brewmasters.models;
 import net.pwing.brewmasters.conditions.BrewCondition;
 import net.pwing.brewmasters.ingredients.BrewingIngredient;
 import net.pwing.brewmasters.ingredients.VanillaIngredient;
+import net.pwing.brewmasters.utils.CommandTemplate;
 import org.bukkit.Color;
 import org.bukkit.Location;
 import org.bukkit.Material;
@@ -18,6 +19,7 @@ import java.util.List;
 public class BrewingRecipe {
 
     private final String id;
+    private final int index;
     private final Material basePotion;
     private final BrewingIngredient ingredient;
     private final String resultName;
@@ -31,9 +33,14 @@ public class BrewingRecipe {
     private final List<BrewCondition> conditions;
     private final List<String> drinkCommands;
     private final List<String> expireCommands;
+    private final List<CommandTemplate> drinkCommandTemplates;
+    private final List<CommandTemplate> expireCommandTemplates;
+    private final List<PeriodicEffect> periodicEffects;
+    private final int drinkCooldown;
 
     private BrewingRecipe(Builder builder) {
         this.id = builder.id;
+        this.index = builder.index;
         this.basePotion = builder.basePotion;
         this.ingredient = builder.ingredient;
         this.resultName = builder.resultName;
@@ -47,12 +54,23 @@ public class BrewingRecipe {
         this.conditions = builder.conditions;
         this.drinkCommands = builder.drinkCommands != null ? new ArrayList<>(builder.drinkCommands) : new ArrayList<>();
         this.expireCommands = builder.expireCommands != null ? new ArrayList<>(builder.expireCommands) : new ArrayList<>();
+        this.drinkCommandTemplates = CommandTemplate.compileAll(this.drinkCommands);
+        this.expireCommandTemplates = CommandTemplate.compileAll(this.expireCommands);
+        this.periodicEffects = builder.periodicEffects;
+        this.drinkCooldown = builder.drinkCooldown;
     }
 
     public String getId() {
         return id;
     }
 
+    /**
+     * Get the numeric index of this recipe, stable across reloads
+     */
+    public int getIndex() {
+        return index;
+    }
+
     public Material getBasePotion() {
         return basePotion;
     }
@@ -115,6 +133,34 @@ public class BrewingRecipe {
     public List<String> getExpireCommands() {
         return new ArrayList<>(expireCommands);
     }
+    
+    /**
+     * Get the drink commands compiled at load time
+     */
+    public List<CommandTemplate> getDrinkCommandTemplates() {
+        return drinkCommandTemplates;
+    }
+    
+    /**
+     * Get the expire commands compiled at load time
+     */
+    public List<CommandTemplate> getExpireCommandTemplates() {
+        return expireCommandTemplates;
+    }
+    
+    /**
+     * Get the effects that repeat while this recipe's effect is active
+     */
+    public List<PeriodicEffect> getPeriodicEffects() {
+        return periodicEffects;
+    }
+    
+    /**
+     * Get the time before the same player can drink this recipe again, in ticks (0 for none)
+     */
+    public int getDrinkCooldown() {
+        return drinkCooldown;
+    }
 
     /**
      * Check if all conditions are met for this recipe
@@ -124,17 +170,21 @@ public class BrewingRecipe {
      * @return true if all conditions are met
      */
     public boolean checkConditions(Player player, Location location) {
-        if (conditions.isEmpty()) {
-            return true;
-        }
+        return getFailedCondition(player, location) == null;
+    }
 
+    /**
+     * Get the first condition that is not met
+     * @return The failed condition, or null if all conditions are met
+     */
+    public BrewCondition getFailedCondition(Player player, Location location) {
         for (BrewCondition condition : conditions) {
             if (!condition.check(player, location)) {
-                return false;
+                return condition;
             }
         }
 
-        return true;
+        return null;
     }
 
     public ItemStack createResultPotion() {
@@ -232,6 +282,7 @@ public class BrewingRecipe {
 
     public static class Builder {
         private String id;
+        private int index;
         private Material basePotion;
         private BrewingIngredient ingredient;
         private String resultName;
@@ -245,11 +296,18 @@ public class BrewingRecipe {
         private List<BrewCondition> conditions = new ArrayList<>();
         private List<String> drinkCommands = new ArrayList<>();
         private List<String> expireCommands = new ArrayList<>();
+        private List<PeriodicEffect> periodicEffects = new ArrayList<>();
+        private int drinkCooldown = 0;
 
         public Builder(String id) {
             this.id = id;
         }
 
+        public Builder index(int index) {
+            this.index = index;
+            return this;
+        }
+
         public Builder basePotion(Material basePotion) {
             this.basePotion = basePotion;
             return this;
@@ -339,6 +397,16 @@ public class BrewingRecipe {
             this.expireCommands = expireCommands;
             return this;
         }
+        
+        public Builder addPeriodicEffect(PeriodicEffect periodicEffect) {
+            this.periodicEffects.add(periodicEffect);
+            return this;
+        }
+        
+        public Builder drinkCooldown(int drinkCooldown) {
+            this.drinkCooldown = drinkCooldown;
+            return this;
+        }
 
         public BrewingRecipe build() {
             if (basePotion == null || ingredient == null) {
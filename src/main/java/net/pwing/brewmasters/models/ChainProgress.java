@@ -0,0 +1,233 @@
+package net.pwing.brewmasters.models;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A player's progress through one brewing chain
+ *
+ * Completed steps are bits keyed by step index, so checking a step is a bit
+ * test and counting completed steps is a popcount. The frontier holds the
+ * steps that can be brewed next; it is derived from the completed steps by
+ * the chain and kept up to date as steps complete. Saved as the completed
+ * steps in hex words, e.g. "1f" for the first five steps, next to the IDs of
+ * those steps. The chain checks the IDs before using the bits, so progress
+ * follows its steps when steps are added, removed or reordered.
+ */
+public class ChainProgress {
+
+    private long[] completed;
+    private long[] frontier;
+    private BrewingChain frontierChain; // Chain the frontier was computed for, recomputed after a reload
+    private List<String> savedStepIds; // IDs of the completed steps as saved, until checked by a chain
+
+    public ChainProgress() {
+        this.completed = new long[1];
+        this.frontier = new long[1];
+    }
+
+    /**
+     * Check if a step is completed
+     */
+    public boolean isComplete(int step) {
+        return test(completed, step);
+    }
+
+    /**
+     * Check if a step can be brewed next
+     */
+    public boolean isAvailable(int step) {
+        return test(frontier, step);
+    }
+
+    /**
+     * Get the number of completed steps
+     */
+    public int getCount() {
+        int count = 0;
+        for (long word : completed) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Check if no step is completed
+     */
+    public boolean isEmpty() {
+        for (long word : completed) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Mark a step as completed and remove it from the frontier
+     */
+    void complete(int step) {
+        completed = set(completed, step);
+        clear(frontier, step);
+    }
+
+    void makeAvailable(int step) {
+        frontier = set(frontier, step);
+    }
+
+    void makeUnavailable(int step) {
+        clear(frontier, step);
+    }
+
+    /**
+     * Get the lowest step in the frontier
+     * @return The step index, or -1 if the frontier is empty
+     */
+    int firstAvailable() {
+        for (int i = 0; i < frontier.length; i++) {
+            if (frontier[i] != 0) {
+                return (i << 6) + Long.numberOfTrailingZeros(frontier[i]);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Check if every step in a mask is completed
+     */
+    boolean containsAll(long[] mask) {
+        for (int i = 0; i < mask.length; i++) {
+            long word = i < completed.length ? completed[i] : 0;
+            if ((word & mask[i]) != mask[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get the index of the next completed step
+     * @return The step index, or -1 if no later step is completed
+     */
+    int nextComplete(int from) {
+        int word = from >>> 6;
+        if (word >= completed.length) {
+            return -1;
+        }
+        long bits = completed[word] & (-1L << from);
+        while (true) {
+            if (bits != 0) {
+                return (word << 6) + Long.numberOfTrailingZeros(bits);
+            }
+            if (++word >= completed.length) {
+                return -1;
+            }
+            bits = completed[word];
+        }
+    }
+
+    /**
+     * Get the IDs of the completed steps, in step order
+     * @return The IDs, or null if the steps are not known (saved before IDs were)
+     */
+    public List<String> getCompletedStepIds() {
+        if (frontierChain == null) {
+            return savedStepIds;
+        }
+
+        List<String> stepIds = new ArrayList<>(getCount());
+        List<BrewingChain.ChainStep> steps = frontierChain.getSteps();
+        for (int step = nextComplete(0); step >= 0 && step < steps.size(); step = nextComplete(step + 1)) {
+            stepIds.add(steps.get(step).getId());
+        }
+        return stepIds;
+    }
+
+    /**
+     * Set the IDs of the completed steps read with the bits
+     */
+    public void setSavedStepIds(List<String> stepIds) {
+        this.savedStepIds = stepIds;
+    }
+
+    BrewingChain getFrontierChain() {
+        return frontierChain;
+    }
+
+    void resetFrontier(BrewingChain chain) {
+        Arrays.fill(frontier, 0);
+        frontierChain = chain;
+        savedStepIds = null;
+    }
+
+    /**
+     * Replace the completed steps, used when the steps of a chain moved
+     */
+    void resetCompleted() {
+        completed = new long[1];
+    }
+
+    private static boolean test(long[] bits, int index) {
+        int word = index >>> 6;
+        return word < bits.length && (bits[word] & (1L << index)) != 0;
+    }
+
+    private static long[] set(long[] bits, int index) {
+        int word = index >>> 6;
+        if (word >= bits.length) {
+            bits = Arrays.copyOf(bits, word + 1);
+        }
+        bits[word] |= 1L << index;
+        return bits;
+    }
+
+    private static void clear(long[] bits, int index) {
+        int word = index >>> 6;
+        if (word < bits.length) {
+            bits[word] &= ~(1L << index);
+        }
+    }
+
+    /**
+     * Parse from the saved format
+     * @return The progress, or null if the text is not valid
+     */
+    public static ChainProgress fromString(String text) {
+        ChainProgress progress = new ChainProgress();
+        if (text == null || text.isEmpty()) {
+            return progress;
+        }
+
+        String[] words = text.split(",");
+        progress.completed = new long[words.length];
+        try {
+            for (int i = 0; i < words.length; i++) {
+                progress.completed[i] = Long.parseUnsignedLong(words[i].trim(), 16);
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        return progress;
+    }
+
+    /**
+     * Convert to the saved format
+     */
+    @Override
+    public String toString() {
+        int length = completed.length;
+        while (length > 1 && completed[length - 1] == 0) {
+            length--;
+        }
+
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append(Long.toHexString(completed[i]));
+        }
+        return builder.toString();
+    }
+}
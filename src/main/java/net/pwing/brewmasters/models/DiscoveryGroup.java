@@ -0,0 +1,106 @@
+package net.pwing.brewmasters.models;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToIntFunction;
+
+/**
+ * A shared recipe book, such as a party or guild, whose members can brew every recipe any of them discovered
+ *
+ * Discovered recipes are bits keyed by recipe index. The bits are copy-on-write:
+ * adding a recipe replaces the array, so members check access without locking.
+ * Recipe IDs are kept alongside so the bits can be rebuilt after recipes reload.
+ */
+public class DiscoveryGroup {
+
+    private final String id;
+    private final Set<UUID> members;
+    private final Set<String> recipeIds;
+    private volatile long[] recipes; // Recipe index bits, replaced rather than modified
+
+    public DiscoveryGroup(String id) {
+        this.id = id;
+        this.members = ConcurrentHashMap.newKeySet();
+        this.recipeIds = ConcurrentHashMap.newKeySet();
+        this.recipes = new long[0];
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Check if a recipe has been discovered by the group
+     */
+    public boolean hasRecipe(int recipeIndex) {
+        long[] bits = recipes;
+        int word = recipeIndex >>> 6;
+        return recipeIndex >= 0 && word < bits.length && (bits[word] & (1L << recipeIndex)) != 0;
+    }
+
+    /**
+     * Add a discovered recipe
+     * @param recipeIndex The index of the recipe, or -1 if it is not loaded
+     * @return true if the recipe was new to the group
+     */
+    public synchronized boolean addRecipe(String recipeId, int recipeIndex) {
+        if (!recipeIds.add(recipeId)) {
+            return false;
+        }
+        if (recipeIndex >= 0) {
+            recipes = withBit(recipes, recipeIndex);
+        }
+        return true;
+    }
+
+    /**
+     * Rebuild the recipe bits from the recipe IDs, call after recipes are reloaded
+     * @param indexOf Gives the index of a recipe ID, or -1 if it is not loaded
+     */
+    public synchronized void reindex(ToIntFunction<String> indexOf) {
+        long[] bits = new long[0];
+        for (String recipeId : recipeIds) {
+            int index = indexOf.applyAsInt(recipeId);
+            if (index >= 0) {
+                bits = withBit(bits, index);
+            }
+        }
+        recipes = bits;
+    }
+
+    private static long[] withBit(long[] bits, int index) {
+        long[] copy = Arrays.copyOf(bits, Math.max(bits.length, (index >>> 6) + 1));
+        copy[index >>> 6] |= 1L << index;
+        return copy;
+    }
+
+    /**
+     * Get the IDs of all recipes discovered by the group
+     */
+    public Set<String> getRecipeIds() {
+        return new HashSet<>(recipeIds);
+    }
+
+    public int getRecipeCount() {
+        return recipeIds.size();
+    }
+
+    public boolean addMember(UUID playerId) {
+        return members.add(playerId);
+    }
+
+    public boolean removeMember(UUID playerId) {
+        return members.remove(playerId);
+    }
+
+    public boolean isMember(UUID playerId) {
+        return members.contains(playerId);
+    }
+
+    public Set<UUID> getMembers() {
+        return new HashSet<>(members);
+    }
+}
@@ -0,0 +1,47 @@
+package net.pwing.brewmasters.models;
+
+import net.pwing.brewmasters.utils.CommandTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Something a recipe does repeatedly while its effect is active,
+ * such as running commands every 5 seconds or healing every 40 ticks
+ */
+public class PeriodicEffect {
+
+    private final int intervalTicks;
+    private final double heal;
+    private final List<String> commands;
+    private final List<CommandTemplate> commandTemplates;
+
+    public PeriodicEffect(int intervalTicks, double heal, List<String> commands) {
+        this.intervalTicks = Math.max(1, intervalTicks);
+        this.heal = heal;
+        this.commands = commands != null ? new ArrayList<>(commands) : new ArrayList<>();
+        this.commandTemplates = CommandTemplate.compileAll(this.commands);
+    }
+
+    public int getIntervalTicks() {
+        return intervalTicks;
+    }
+
+    /**
+     * Get the health restored each interval (0 for none)
+     */
+    public double getHeal() {
+        return heal;
+    }
+
+    public List<String> getCommands() {
+        return new ArrayList<>(commands);
+    }
+
+    /**
+     * Get the commands compiled at load time
+     */
+    public List<CommandTemplate> getCommandTemplates() {
+        return commandTemplates;
+    }
+}
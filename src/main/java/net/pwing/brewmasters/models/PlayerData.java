@@ -15,8 +15,14 @@ public class PlayerData {
     private final Set<String> discoveredRecipes;
     private final Map<String, Integer> brewingStats;
     private final Set<String> achievements;
-    private final Map<String, List<String>> chainProgress; // chainId -> completed recipe IDs
+    private final Map<String, ChainProgress> chainProgress; // chainId -> completed steps
+    private final Map<String, List<String>> legacyChainProgress; // chainId -> completed recipe IDs (old format)
     private final Set<String> completedChains;
+    private final Map<String, WindowCounter> windowCounters; // achievementId -> events within its window
+    private final Map<String, int[]> discoveryProgress; // recipeId -> counters towards its discovery
+    private DiscoveryGroup discoveryGroup; // Shared recipe book, membership is saved in groups.yml
+    private long lastBrewDay = -1; // Epoch day of the last brew
+    private int brewStreak;
     private long firstJoined;
     private long lastSeen;
 
@@ -26,7 +32,10 @@ public class PlayerData {
         this.brewingStats = new HashMap<>();
         this.achievements = new HashSet<>();
         this.chainProgress = new HashMap<>();
+        this.legacyChainProgress = new HashMap<>();
         this.completedChains = new HashSet<>();
+        this.windowCounters = new HashMap<>();
+        this.discoveryProgress = new HashMap<>();
         this.firstJoined = System.currentTimeMillis();
         this.lastSeen = System.currentTimeMillis();
     }
@@ -58,8 +67,22 @@ public class PlayerData {
         ConfigurationSection chainSection = config.getConfigurationSection("chain-progress");
         if (chainSection != null) {
             for (String chainId : chainSection.getKeys(false)) {
-                List<String> completedRecipes = chainSection.getStringList(chainId);
-                data.chainProgress.put(chainId, new ArrayList<>(completedRecipes));
+                if (chainSection.isList(chainId)) {
+                    // Old format, converted to steps once the chain is looked up
+                    data.legacyChainProgress.put(chainId, new ArrayList<>(chainSection.getStringList(chainId)));
+                    continue;
+                }
+
+                ConfigurationSection progressSection = chainSection.getConfigurationSection(chainId);
+                ChainProgress progress = ChainProgress.fromString(progressSection != null
+                        ? progressSection.getString("completed") : chainSection.getString(chainId));
+                if (progress != null) {
+                    if (progressSection != null) {
+                        // Checked against the chain's steps once the chain is looked up
+                        progress.setSavedStepIds(new ArrayList<>(progressSection.getStringList("steps")));
+                    }
+                    data.chainProgress.put(chainId, progress);
+                }
             }
         }
 
@@ -67,6 +90,32 @@ public class PlayerData {
         List<String> completedChainsList = config.getStringList("completed-chains");
         data.completedChains.addAll(completedChainsList);
 
+        // Load windowed achievement counters
+        ConfigurationSection windowSection = config.getConfigurationSection("window-counters");
+        if (windowSection != null) {
+            for (String achievementId : windowSection.getKeys(false)) {
+                ConfigurationSection counterSection = windowSection.getConfigurationSection(achievementId);
+                if (counterSection != null) {
+                    data.windowCounters.put(achievementId, WindowCounter.fromConfig(counterSection));
+                }
+            }
+        }
+
+        // Load discovery progress
+        ConfigurationSection discoverySection = config.getConfigurationSection("discovery-progress");
+        if (discoverySection != null) {
+            for (String recipeId : discoverySection.getKeys(false)) {
+                int[] counters = parseCounters(discoverySection.getString(recipeId));
+                if (counters != null) {
+                    data.discoveryProgress.put(recipeId, counters);
+                }
+            }
+        }
+
+        // Load brewing streak
+        data.lastBrewDay = config.getLong("brew-streak.last-day", -1);
+        data.brewStreak = config.getInt("brew-streak.days", 0);
+
         // Load timestamps
         data.firstJoined = config.getLong("first-joined", System.currentTimeMillis());
         data.lastSeen = config.getLong("last-seen", System.currentTimeMillis());
@@ -90,16 +139,59 @@ public class PlayerData {
         config.set("achievements", new ArrayList<>(achievements));
 
         // Save chain progress
-        if (!chainProgress.isEmpty()) {
+        if (!chainProgress.isEmpty() || !legacyChainProgress.isEmpty()) {
             ConfigurationSection chainSection = config.createSection("chain-progress");
-            for (Map.Entry<String, List<String>> entry : chainProgress.entrySet()) {
+            for (Map.Entry<String, List<String>> entry : legacyChainProgress.entrySet()) {
                 chainSection.set(entry.getKey(), entry.getValue());
             }
+            for (Map.Entry<String, ChainProgress> entry : chainProgress.entrySet()) {
+                ChainProgress progress = entry.getValue();
+                if (progress.isEmpty()) {
+                    continue;
+                }
+                List<String> stepIds = progress.getCompletedStepIds();
+                if (stepIds == null) {
+                    chainSection.set(entry.getKey(), progress.toString()); // Steps unknown, kept as loaded
+                    continue;
+                }
+                ConfigurationSection progressSection = chainSection.createSection(entry.getKey());
+                progressSection.set("completed", progress.toString());
+                progressSection.set("steps", stepIds);
+            }
         }
 
         // Save completed chains
         config.set("completed-chains", new ArrayList<>(completedChains));
 
+        // Save windowed achievement counters
+        if (!windowCounters.isEmpty()) {
+            ConfigurationSection windowSection = config.createSection("window-counters");
+            for (Map.Entry<String, WindowCounter> entry : windowCounters.entrySet()) {
+                entry.getValue().saveToConfig(windowSection.createSection(entry.getKey()));
+            }
+        }
+
+        // Save discovery progress as comma separated counters
+        if (!discoveryProgress.isEmpty()) {
+            ConfigurationSection discoverySection = config.createSection("discovery-progress");
+            for (Map.Entry<String, int[]> entry : discoveryProgress.entrySet()) {
+                StringBuilder counters = new StringBuilder();
+                for (int counter : entry.getValue()) {
+                    if (counters.length() > 0) {
+                        counters.append(',');
+                    }
+                    counters.append(counter);
+                }
+                discoverySection.set(entry.getKey(), counters.toString());
+            }
+        }
+
+        // Save brewing streak
+        if (lastBrewDay >= 0) {
+            config.set("brew-streak.last-day", lastBrewDay);
+            config.set("brew-streak.days", brewStreak);
+        }
+
         config.set("first-joined", firstJoined);
         config.set("last-seen", lastSeen);
     }
@@ -120,6 +212,18 @@ public class PlayerData {
         return discoveredRecipes.add(recipeId);
     }
 
+    /**
+     * Get the shared recipe book of the player
+     * @return The group, or null if the player is not in one
+     */
+    public DiscoveryGroup getDiscoveryGroup() {
+        return discoveryGroup;
+    }
+
+    public void setDiscoveryGroup(DiscoveryGroup discoveryGroup) {
+        this.discoveryGroup = discoveryGroup;
+    }
+
     /**
      * Get all discovered recipes
      */
@@ -172,17 +276,65 @@ public class PlayerData {
     }
 
     /**
-     * Complete a step in a brewing chain
+     * Get progress through a brewing chain
+     * @return The progress, or null if none has been recorded
      */
-    public void completeChainStep(String chainId, String recipeId) {
-        chainProgress.computeIfAbsent(chainId, k -> new ArrayList<>()).add(recipeId);
+    public ChainProgress getChainProgress(String chainId) {
+        return chainProgress.get(chainId);
     }
 
     /**
-     * Get completed recipes for a chain
+     * Set progress through a brewing chain
      */
-    public List<String> getCompletedChainRecipes(String chainId) {
-        return chainProgress.getOrDefault(chainId, new ArrayList<>());
+    public void setChainProgress(String chainId, ChainProgress progress) {
+        chainProgress.put(chainId, progress);
+    }
+
+    /**
+     * Remove progress saved in the old format (completed recipe IDs) so it can be converted
+     * @return The completed recipe IDs, or null if there were none
+     */
+    public List<String> removeLegacyChainProgress(String chainId) {
+        return legacyChainProgress.remove(chainId);
+    }
+
+    /**
+     * Get the counters towards discovering a recipe, created on first use
+     * Counters saved with a different size are started over
+     *
+     * @param size The number of counters the discovery method uses
+     */
+    public int[] getDiscoveryProgress(String recipeId, int size) {
+        int[] counters = discoveryProgress.get(recipeId);
+        if (counters == null || counters.length != size) {
+            counters = new int[size];
+            discoveryProgress.put(recipeId, counters);
+        }
+        return counters;
+    }
+
+    /**
+     * Remove the counters towards discovering a recipe
+     */
+    public void clearDiscoveryProgress(String recipeId) {
+        discoveryProgress.remove(recipeId);
+    }
+
+    private static int[] parseCounters(String text) {
+        if (text == null || text.isEmpty()) {
+            return null;
+        }
+
+        String[] parts = text.split(",");
+        int[] counters = new int[parts.length];
+        try {
+            for (int i = 0; i < parts.length; i++) {
+                counters[i] = Integer.parseInt(parts[i].trim());
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        return counters;
     }
 
     /**
@@ -213,6 +365,44 @@ public class PlayerData {
         return new HashSet<>(achievements);
     }
 
+    /**
+     * Get the sliding window counter of a windowed achievement
+     * A counter saved with a different window length is started over
+     */
+    public WindowCounter getWindowCounter(String achievementId, long windowMillis) {
+        WindowCounter counter = windowCounters.get(achievementId);
+        if (counter == null || !counter.hasWindow(windowMillis)) {
+            counter = new WindowCounter(windowMillis);
+            windowCounters.put(achievementId, counter);
+        }
+        return counter;
+    }
+
+    /**
+     * Record a brew on a day, extending or restarting the brewing streak
+     * 
+     * @param epochDay The day of the brew
+     * @return The number of consecutive days brewed, including this one
+     */
+    public int recordBrewDay(long epochDay) {
+        if (epochDay == lastBrewDay + 1) {
+            brewStreak++;
+        } else if (epochDay != lastBrewDay) {
+            brewStreak = 1;
+        }
+        lastBrewDay = epochDay;
+        return brewStreak;
+    }
+
+    /**
+     * Get the current brewing streak, 0 if it was broken
+     * 
+     * @param today The current epoch day
+     */
+    public int getBrewStreak(long today) {
+        return lastBrewDay >= today - 1 ? brewStreak : 0;
+    }
+
     /**
      * Update last seen timestamp
      */
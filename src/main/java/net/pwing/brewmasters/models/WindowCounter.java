@@ -0,0 +1,104 @@
+package net.pwing.brewmasters.models;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Counts events within a sliding time window using a fixed ring of buckets
+ *
+ * The window is split into {@link #BUCKET_COUNT} buckets; when time moves on,
+ * buckets that fall out of the window are subtracted from the running total.
+ * The oldest bucket is dropped as a whole, so the window is accurate to one
+ * bucket (1/12 of its length).
+ */
+public class WindowCounter {
+
+    public static final int BUCKET_COUNT = 12;
+
+    private final long bucketMillis;
+    private final int[] counts;
+    private long newestBucket; // Absolute bucket number (time / bucketMillis) of the newest bucket
+    private int total;
+
+    public WindowCounter(long windowMillis) {
+        this.bucketMillis = Math.max(1, windowMillis / BUCKET_COUNT);
+        this.counts = new int[BUCKET_COUNT];
+    }
+
+    /**
+     * Record events at a point in time
+     * @return The number of events within the window
+     */
+    public int add(long now, int amount) {
+        advance(now);
+        counts[(int) (newestBucket % BUCKET_COUNT)] += amount;
+        total += amount;
+        return total;
+    }
+
+    /**
+     * Get the number of events within the window ending now
+     */
+    public int getTotal(long now) {
+        advance(now);
+        return total;
+    }
+
+    private void advance(long now) {
+        long bucket = now / bucketMillis;
+        if (bucket <= newestBucket) {
+            return;
+        }
+
+        if (bucket - newestBucket >= BUCKET_COUNT) {
+            Arrays.fill(counts, 0);
+            total = 0;
+        } else {
+            for (long expired = newestBucket + 1; expired <= bucket; expired++) {
+                int index = (int) (expired % BUCKET_COUNT);
+                total -= counts[index];
+                counts[index] = 0;
+            }
+        }
+        newestBucket = bucket;
+    }
+
+    /**
+     * Check if this counter was created for the given window length
+     */
+    public boolean hasWindow(long windowMillis) {
+        return bucketMillis == Math.max(1, windowMillis / BUCKET_COUNT);
+    }
+
+    /**
+     * Load from config
+     */
+    public static WindowCounter fromConfig(ConfigurationSection section) {
+        WindowCounter counter = new WindowCounter(section.getLong("bucket-millis") * BUCKET_COUNT);
+        counter.newestBucket = section.getLong("newest-bucket");
+
+        List<Integer> savedCounts = section.getIntegerList("counts");
+        for (int i = 0; i < BUCKET_COUNT && i < savedCounts.size(); i++) {
+            counter.counts[i] = savedCounts.get(i);
+            counter.total += savedCounts.get(i);
+        }
+        return counter;
+    }
+
+    /**
+     * Save to config
+     */
+    public void saveToConfig(ConfigurationSection section) {
+        section.set("bucket-millis", bucketMillis);
+        section.set("newest-bucket", newestBucket);
+
+        List<Integer> savedCounts = new ArrayList<>(BUCKET_COUNT);
+        for (int count : counts) {
+            savedCounts.add(count);
+        }
+        section.set("counts", savedCounts);
+    }
+}
@@ -0,0 +1,56 @@
+package net.pwing.brewmasters.utils;
+
+import net.pwing.brewmasters.models.BrewingRecipe;
+import net.pwing.brewmasters.utils.CommandTemplate.Placeholder;
+import org.bukkit.entity.Player;
+
+/**
+ * Placeholder values for one command trigger (a drink, an expiry, a reward...)
+ */
+public class CommandContext {
+
+    private final Player player;
+    private final String[] values;
+
+    private CommandContext(Player player) {
+        this.player = player;
+        this.values = new String[Placeholder.values().length];
+        this.values[Placeholder.PLAYER.ordinal()] = player.getName();
+        this.values[Placeholder.UUID.ordinal()] = player.getUniqueId().toString();
+    }
+
+    /**
+     * Create a context for a player, filling {player} and {uuid}
+     */
+    public static CommandContext of(Player player) {
+        return new CommandContext(player);
+    }
+
+    /**
+     * Fill {recipe_id} and {recipe_name} from a recipe
+     */
+    public CommandContext recipe(BrewingRecipe recipe) {
+        set(Placeholder.RECIPE_ID, recipe.getId());
+        return set(Placeholder.RECIPE_NAME, recipe.getResultName() != null ? recipe.getResultName() : recipe.getId());
+    }
+
+    /**
+     * Set a placeholder value
+     */
+    public CommandContext set(Placeholder placeholder, String value) {
+        values[placeholder.ordinal()] = value;
+        return this;
+    }
+
+    /**
+     * Get a placeholder value, leaving the token untouched if it was never set
+     */
+    public String get(Placeholder placeholder) {
+        String value = values[placeholder.ordinal()];
+        return value != null ? value : placeholder.getToken();
+    }
+
+    public Player getPlayer() {
+        return player;
+    }
+}
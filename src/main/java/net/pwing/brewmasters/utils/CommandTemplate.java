@@ -0,0 +1,164 @@
+package net.pwing.brewmasters.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A configured command compiled into literal and placeholder segments
+ *
+ * Supported formats:
+ * - "[console] command" or "command" - run by the console
+ * - "[player] command" - run by the player
+ *
+ * Placeholders such as {player} or {recipe_name} are resolved from a
+ * {@link CommandContext} when the command is dispatched.
+ */
+public class CommandTemplate {
+
+    private final Sender sender;
+    private final String[] literals;
+    private final Placeholder[] placeholders;
+    private final int literalLength;
+
+    private CommandTemplate(Sender sender, List<String> literals, List<Placeholder> placeholders) {
+        this.sender = sender;
+        this.literals = literals.toArray(new String[0]);
+        this.placeholders = placeholders.toArray(new Placeholder[0]);
+
+        int length = 0;
+        for (String literal : this.literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    /**
+     * Compile a raw command string
+     *
+     * @param raw The command as written in the config
+     * @return The compiled template
+     */
+    public static CommandTemplate compile(String raw) {
+        String command = raw.trim();
+        Sender sender = Sender.CONSOLE;
+
+        if (command.startsWith("[player]")) {
+            sender = Sender.PLAYER;
+            command = command.substring(8).trim();
+        } else if (command.startsWith("[console]")) {
+            command = command.substring(9).trim();
+        }
+
+        // Alternating segments: literals[i] is followed by placeholders[i]
+        List<String> literals = new ArrayList<>();
+        List<Placeholder> placeholders = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+
+        int index = 0;
+        while (index < command.length()) {
+            char c = command.charAt(index);
+            if (c == '{') {
+                int close = command.indexOf('}', index);
+                Placeholder placeholder = close > index ? Placeholder.fromKey(command.substring(index + 1, close)) : null;
+                if (placeholder != null) {
+                    literals.add(literal.toString());
+                    placeholders.add(placeholder);
+                    literal.setLength(0);
+                    index = close + 1;
+                    continue;
+                }
+            }
+            literal.append(c);
+            index++;
+        }
+        literals.add(literal.toString());
+
+        return new CommandTemplate(sender, literals, placeholders);
+    }
+
+    /**
+     * Compile a list of raw command strings, skipping blank entries
+     */
+    public static List<CommandTemplate> compileAll(List<String> rawCommands) {
+        if (rawCommands == null || rawCommands.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<CommandTemplate> templates = new ArrayList<>(rawCommands.size());
+        for (String raw : rawCommands) {
+            if (raw != null && !raw.isBlank()) {
+                templates.add(compile(raw));
+            }
+        }
+        return Collections.unmodifiableList(templates);
+    }
+
+    /**
+     * Render the command for a context
+     */
+    public String render(CommandContext context) {
+        if (placeholders.length == 0) {
+            return literals[0];
+        }
+
+        StringBuilder builder = new StringBuilder(literalLength + placeholders.length * 16);
+        for (int i = 0; i < placeholders.length; i++) {
+            builder.append(literals[i]).append(context.get(placeholders[i]));
+        }
+        builder.append(literals[placeholders.length]);
+        return builder.toString();
+    }
+
+    public Sender getSender() {
+        return sender;
+    }
+
+    /**
+     * Who runs a command
+     */
+    public enum Sender {
+        CONSOLE,
+        PLAYER
+    }
+
+    /**
+     * Placeholders shared by drink, expire, chain and achievement commands
+     */
+    public enum Placeholder {
+        PLAYER("player"),
+        UUID("uuid"),
+        RECIPE_ID("recipe_id"),
+        RECIPE_NAME("recipe_name"),
+        CHAIN_ID("chain_id"),
+        CHAIN_NAME("chain_name"),
+        ACHIEVEMENT_ID("achievement_id"),
+        ACHIEVEMENT_NAME("achievement_name");
+
+        private final String key;
+
+        Placeholder(String key) {
+            this.key = key;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        /**
+         * Get the token as written in commands, e.g. {player}
+         */
+        public String getToken() {
+            return "{" + key + "}";
+        }
+
+        static Placeholder fromKey(String key) {
+            for (Placeholder placeholder : values()) {
+                if (placeholder.key.equals(key)) {
+                    return placeholder;
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -4,6 +4,7 @@ import net.kyori.adventure.text.Component;
 import org.bukkit.Bukkit;
 import org.bukkit.Material;
 import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryHolder;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
 
@@ -26,8 +27,20 @@ public class InventoryUtils {
      * @return Inventory
      */
     public static Inventory createInventory(int size, Component title) {
+        return createInventory(null, size, title);
+    }
+
+    /**
+     * Create an inventory with a holder and a Component title
+     * 
+     * @param holder Inventory holder, or null
+     * @param size Inventory size (must be multiple of 9)
+     * @param title Component title
+     * @return Inventory
+     */
+    public static Inventory createInventory(InventoryHolder holder, int size, Component title) {
         // Paper API supports Component titles directly
-        return Bukkit.createInventory(null, size, title);
+        return Bukkit.createInventory(holder, size, title);
     }
 
     /**
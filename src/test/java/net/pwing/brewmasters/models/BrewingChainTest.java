@@ -0,0 +1,111 @@
+package net.pwing.brewmasters.models;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BrewingChainTest {
+
+    /**
+     * healing -> strength or speed -> regeneration
+     */
+    private static BrewingChain branchingChain() {
+        return new BrewingChain.Builder("branching")
+                .addStep(new BrewingChain.ChainStep("healing", "healing", null, null, null, null))
+                .addStep(new BrewingChain.ChainStep("strength", "strength", null, null, List.of("healing"), null))
+                .addStep(new BrewingChain.ChainStep("speed", "speed", null, null, List.of("healing"), null))
+                .addStep(new BrewingChain.ChainStep("regeneration", "regeneration", null, null,
+                        null, List.of("strength", "speed")))
+                .build();
+    }
+
+    private static void brew(BrewingChain chain, ChainProgress progress, String recipeId) {
+        int step = chain.findStep(progress, recipeId);
+        assertTrue(step >= 0, recipeId + " should be brewable");
+        chain.completeStep(progress, step);
+    }
+
+    @Test
+    void unusedAlternativeLeavesFrontier() {
+        BrewingChain chain = branchingChain();
+        ChainProgress progress = new ChainProgress();
+
+        brew(chain, progress, "healing");
+        brew(chain, progress, "strength");
+
+        assertEquals(-1, chain.findStep(progress, "speed"));
+        assertEquals("regeneration", chain.getNextStep(progress).getRecipeId());
+    }
+
+    @Test
+    void unusedAlternativeDoesNotProgressCompletedChain() {
+        BrewingChain chain = branchingChain();
+        ChainProgress progress = new ChainProgress();
+
+        brew(chain, progress, "healing");
+        brew(chain, progress, "strength");
+        brew(chain, progress, "regeneration");
+        assertTrue(chain.isCompleted(progress));
+
+        assertEquals(-1, chain.findStep(progress, "speed"));
+        assertEquals(3, progress.getCount());
+    }
+
+    @Test
+    void unusedAlternativeStaysOutAfterReload() {
+        BrewingChain chain = branchingChain();
+        ChainProgress progress = new ChainProgress();
+        brew(chain, progress, "healing");
+        brew(chain, progress, "strength");
+
+        ChainProgress loaded = ChainProgress.fromString(progress.toString());
+
+        assertEquals(-1, chain.findStep(loaded, "speed"));
+        assertFalse(chain.isCompleted(loaded));
+    }
+
+    private static BrewingChain unorderedChain(String... recipeIds) {
+        BrewingChain.Builder builder = new BrewingChain.Builder("unordered").requiresOrder(false);
+        for (String recipeId : recipeIds) {
+            builder.addStep(new BrewingChain.ChainStep(recipeId, null, null));
+        }
+        return builder.build();
+    }
+
+    private static ChainProgress saveAndLoad(ChainProgress progress) {
+        ChainProgress loaded = ChainProgress.fromString(progress.toString());
+        loaded.setSavedStepIds(progress.getCompletedStepIds());
+        return loaded;
+    }
+
+    @Test
+    void savedProgressFollowsInsertedStep() {
+        BrewingChain before = unorderedChain("healing", "strength");
+        ChainProgress progress = new ChainProgress();
+        brew(before, progress, "healing");
+
+        BrewingChain after = unorderedChain("speed", "healing", "strength");
+        ChainProgress loaded = saveAndLoad(progress);
+
+        assertEquals(-1, after.findStep(loaded, "healing"));
+        assertEquals(0, after.findStep(loaded, "speed"));
+        assertEquals(List.of("healing"), loaded.getCompletedStepIds());
+    }
+
+    @Test
+    void progressFollowsStepsAcrossReload() {
+        BrewingChain before = unorderedChain("healing", "strength", "speed");
+        ChainProgress progress = new ChainProgress();
+        brew(before, progress, "strength");
+
+        BrewingChain after = unorderedChain("strength", "healing");
+
+        assertEquals(-1, after.findStep(progress, "strength"));
+        assertEquals(1, after.findStep(progress, "healing"));
+        assertEquals(1, progress.getCount());
+    }
+}